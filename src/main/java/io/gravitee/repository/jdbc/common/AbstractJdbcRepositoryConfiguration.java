@@ -32,9 +32,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Map;
 
 /**
@@ -52,15 +54,19 @@ public abstract class AbstractJdbcRepositoryConfiguration implements Application
     private static final int DEFAULT_MIN_IDLE = 10;
     private static final int DEFAULT_MAX_POOL_SIZE = 10;
     private static final boolean DEFAULT_REGISTER_MBEANS = true;
+    // driver settings changing how statements are sent, left to the drivers' defaults unless enabled
+    private static final boolean DEFAULT_REWRITE_BATCHED_INSERTS = false;
+    private static final boolean DEFAULT_CACHE_PREPARED_STATEMENTS = false;
+    private static final boolean DEFAULT_AUDIT_PARTITIONING = false;
+
+    // Liquibase context of the changesets only run when audits are partitioned
+    private static final String AUDIT_PARTITIONING_CONTEXT = "audit-partitioning";
 
     @Autowired
     private Environment env;
 
-    private static char escapeReservedWordsChar = '`';
-
-    public static String escapeReservedWord(final String word) {
-        return escapeReservedWordsChar + word + escapeReservedWordsChar;
-    }
+    // set when the transaction manager of the datasource is registered by this configuration
+    private DataSourceTransactionManager transactionManager;
 
     @Override
     public void setApplicationContext(final ApplicationContext applicationContext) {
@@ -77,7 +83,8 @@ public abstract class AbstractJdbcRepositoryConfiguration implements Application
             final ConfigurableListableBeanFactory beanFactory = appContext.getBeanFactory();
             final DataSource dataSource = graviteeDataSource();
             beanFactory.registerSingleton("graviteeDataSource", dataSource);
-            beanFactory.registerSingleton("graviteeTransactionManager", new DataSourceTransactionManager(dataSource));
+            transactionManager = new DataSourceTransactionManager(dataSource);
+            beanFactory.registerSingleton("graviteeTransactionManager", transactionManager);
         }
     }
 
@@ -86,7 +93,7 @@ public abstract class AbstractJdbcRepositoryConfiguration implements Application
         dsConfig.setPoolName("gravitee-jdbc-pool-1");
 
         final String jdbcUrl = readPropertyValue("management.jdbc.url");
-        setEscapeReservedWordFromJDBCUrl(jdbcUrl);
+        final SqlDialect dialect = SqlDialect.fromJdbcUrl(jdbcUrl);
 
         dsConfig.setJdbcUrl(jdbcUrl);
         dsConfig.setUsername(readPropertyValue("management.jdbc.username"));
@@ -99,15 +106,34 @@ public abstract class AbstractJdbcRepositoryConfiguration implements Application
         dsConfig.setMinimumIdle(readPropertyValue("management.jdbc.pool.minIdle", Integer.class, DEFAULT_MIN_IDLE));
         dsConfig.setMaximumPoolSize(readPropertyValue("management.jdbc.pool.maxPoolSize", Integer.class, DEFAULT_MAX_POOL_SIZE));
         dsConfig.setRegisterMbeans(readPropertyValue("management.jdbc.pool.registerMbeans", Boolean.class, DEFAULT_REGISTER_MBEANS));
+        // Let the driver send batched inserts as multi-row statements, when management.jdbc.rewriteBatchedInserts is set
+        if (readPropertyValue("management.jdbc.rewriteBatchedInserts", Boolean.class, DEFAULT_REWRITE_BATCHED_INSERTS)) {
+            if (dialect == SqlDialect.POSTGRESQL) {
+                dsConfig.addDataSourceProperty("reWriteBatchedInserts", "true");
+            } else {
+                dsConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+            }
+        }
+        // MySQL and MariaDB drivers don't cache prepared statements unless asked to, by
+        // management.jdbc.cachePreparedStatements; PostgreSQL does by default
+        if (dialect != SqlDialect.POSTGRESQL
+                && readPropertyValue("management.jdbc.cachePreparedStatements", Boolean.class, DEFAULT_CACHE_PREPARED_STATEMENTS)) {
+            dsConfig.addDataSourceProperty("cachePrepStmts", "true");
+            dsConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+            dsConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        }
 
         final DataSource dataSource = new HikariDataSource(dsConfig);
         runLiquibase(dataSource);
         return dataSource;
     }
 
-    public static void setEscapeReservedWordFromJDBCUrl(final String jdbcUrl) {
-        if (jdbcUrl != null && "postgresql".equals(jdbcUrl.split(":")[1])) {
-            escapeReservedWordsChar = '\"';
+    @Bean
+    public SqlDialect graviteeSqlDialect(final DataSource dataSource) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            final SqlDialect dialect = SqlDialect.fromJdbcUrl(conn.getMetaData().getURL());
+            LOGGER.debug("AbstractJdbcRepositoryConfiguration.graviteeSqlDialect() = {}", dialect);
+            return dialect;
         }
     }
 
@@ -117,6 +143,13 @@ public abstract class AbstractJdbcRepositoryConfiguration implements Application
         return new JdbcTemplate(dataSource);
     }
 
+    @Bean
+    public TransactionTemplate graviteeTransactionTemplate(final DataSource dataSource) {
+        LOGGER.debug("AbstractJdbcRepositoryConfiguration.graviteeTransactionTemplate()");
+        // a datasource provided by the application has no transaction manager of ours
+        return new TransactionTemplate(transactionManager != null ? transactionManager : new DataSourceTransactionManager(dataSource));
+    }
+
     private void runLiquibase(DataSource dataSource) {
         LOGGER.debug("Running Liquibase on {}", dataSource);
 
@@ -127,7 +160,9 @@ public abstract class AbstractJdbcRepositoryConfiguration implements Application
             final Liquibase liquibase = new Liquibase("liquibase/master.yml"
                     , new ClassLoaderResourceAccessor(this.getClass().getClassLoader()), new JdbcConnection(conn));
             liquibase.setIgnoreClasspathPrefix(true);
-            liquibase.update((Contexts) null);
+            // changesets without context always run, the others only when their context is given
+            final boolean auditPartitioning = readPropertyValue("management.jdbc.audit.partitioning.enabled", Boolean.class, DEFAULT_AUDIT_PARTITIONING);
+            liquibase.update(new Contexts(auditPartitioning ? AUDIT_PARTITIONING_CONTEXT : "default"));
         } catch (Exception ex) {
             LOGGER.error("Failed to set up database: ", ex);
         }
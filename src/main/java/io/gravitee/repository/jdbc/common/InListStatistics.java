@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how often the IN conditions reuse one of the {@value #MAX_CONDITIONS} conditions last built, same column and
+ * same number of parameters, which is the best hit rate a prepared statement cache of that size can reach for them.
+ * The rate is logged at debug level every {@value #REPORT_INTERVAL} lists.
+ *
+ * @author GraviteeSource Team
+ */
+public class InListStatistics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InListStatistics.class);
+
+    private static final long REPORT_INTERVAL = 10000;
+
+    // size of the prepared statement cache set up for the MySQL and MariaDB drivers when they are asked to cache
+    private static final int MAX_CONDITIONS = 250;
+
+    private final Map<String, Boolean> conditions = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_CONDITIONS;
+        }
+    };
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    void record(final String condition) {
+        final long count = lookups.incrementAndGet();
+        final boolean hit;
+        synchronized (conditions) {
+            hit = conditions.put(condition, Boolean.TRUE) != null;
+        }
+        if (hit) {
+            hits.incrementAndGet();
+        }
+        if (count % REPORT_INTERVAL == 0 && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("IN lists: {} statements, {} recent conditions, reuse rate {}%", count, getDistinctConditions(), String.format("%.1f", getHitRate() * 100));
+        }
+    }
+
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    /**
+     * Number of distinct conditions among the last ones built, at most {@value #MAX_CONDITIONS}.
+     */
+    public int getDistinctConditions() {
+        synchronized (conditions) {
+            return conditions.size();
+        }
+    }
+
+    public double getHitRate() {
+        final long count = lookups.get();
+        return count == 0 ? 0 : (double) hits.get() / count;
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.common;
+
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * SQL specificities of the supported databases. The dialect of a datasource is exposed as a bean so that
+ * repositories can use the most efficient SQL for it.
+ *
+ * @author GraviteeSource Team
+ */
+public enum SqlDialect {
+
+    MYSQL('`'),
+    MARIADB('`'),
+    POSTGRESQL('"') {
+        @Override
+        public String buildInCondition(final String column, final int size) {
+            // a single array parameter keeps the same statement whatever the number of values
+            final String condition = column + " = any(?)";
+            IN_LIST_STATISTICS.record(condition);
+            return condition;
+        }
+
+        @Override
+        public List<Object> getInArguments(final Collection<?> values) {
+            return singletonList(new VarcharArray(toBindValues(values)));
+        }
+
+        @Override
+        public String buildUpsertClause(final List<String> keyColumns, final List<String> updatedColumns) {
+            final StringBuilder builder = new StringBuilder(" on conflict (");
+            builder.append(String.join(", ", keyColumns));
+            builder.append(")");
+            if (updatedColumns.isEmpty()) {
+                builder.append(" do nothing");
+            } else {
+                builder.append(" do update set ");
+                for (int i = 0; i < updatedColumns.size(); i++) {
+                    if (i > 0) {
+                        builder.append(", ");
+                    }
+                    builder.append(updatedColumns.get(i)).append(" = excluded.").append(updatedColumns.get(i));
+                }
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public String buildCreateTemporaryIdTable(final String tableName) {
+            // dropped by the database at the end of the transaction, if the caller didn't do it before
+            return "create temporary table " + tableName + " ( id varchar(64) not null primary key ) on commit drop";
+        }
+
+        @Override
+        public String buildDropTemporaryTable(final String tableName) {
+            return "drop table if exists " + tableName;
+        }
+
+        @Override
+        public String buildListPartitions() {
+            return "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid"
+                    + " join pg_class p on p.oid = i.inhparent where p.relname = ?";
+        }
+
+        @Override
+        public List<String> buildCreateMonthlyPartitions(final String tableName, final List<YearMonth> months) {
+            final List<String> statements = new ArrayList<>(months.size());
+            for (YearMonth month : months) {
+                statements.add("create table " + getPartitionName(tableName, month) + " partition of " + tableName
+                        + " for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')");
+            }
+            return statements;
+        }
+
+        @Override
+        public String buildDropPartition(final String tableName, final YearMonth month) {
+            return "drop table if exists " + getPartitionName(tableName, month);
+        }
+
+        @Override
+        public String getPartitionName(final String tableName, final YearMonth month) {
+            // partitions are tables of their own
+            return tableName + "_p" + month.format(PARTITION_SUFFIX);
+        }
+    };
+
+    private static final InListStatistics IN_LIST_STATISTICS = new InListStatistics();
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final char escapeChar;
+
+    SqlDialect(final char escapeChar) {
+        this.escapeChar = escapeChar;
+    }
+
+    /**
+     * Array of strings bound as a single parameter.
+     */
+    private static class VarcharArray extends AbstractSqlTypeValue {
+
+        private final List<Object> values;
+
+        VarcharArray(List<Object> values) {
+            this.values = values;
+        }
+
+        @Override
+        protected Object createTypeValue(Connection con, int sqlType, String typeName) throws SQLException {
+            return con.createArrayOf("varchar", values.toArray());
+        }
+
+        @Override
+        public String toString() {
+            return values.toString();
+        }
+    }
+
+    public static SqlDialect fromJdbcUrl(final String jdbcUrl) {
+        final String[] parts = jdbcUrl == null ? new String[0] : jdbcUrl.split(":");
+        if (parts.length > 1) {
+            switch (parts[1]) {
+                case "postgresql":
+                    return POSTGRESQL;
+                case "mariadb":
+                    return MARIADB;
+                case "mysql":
+                    return MYSQL;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported JDBC URL: " + jdbcUrl);
+    }
+
+    public String escapeReservedWord(final String word) {
+        return escapeChar + word + escapeChar;
+    }
+
+    /**
+     * Condition checking that the column is one of the values, to be bound with {@link #getInArguments(Collection)}.
+     * The list of parameters is padded to the next power of two so that a few statements are reused by the
+     * prepared statement cache of the driver.
+     */
+    public String buildInCondition(final String column, final int size) {
+        final int paddedSize = getPaddedSize(size);
+        final StringBuilder builder = new StringBuilder(column).append(" in (");
+        for (int i = 0; i < paddedSize; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append("?");
+        }
+        final String condition = builder.append(")").toString();
+        IN_LIST_STATISTICS.record(condition);
+        return condition;
+    }
+
+    /**
+     * Parameters to bind, in order, for the condition built by {@link #buildInCondition(String, int)}.
+     */
+    public List<Object> getInArguments(final Collection<?> values) {
+        final List<Object> bindValues = toBindValues(values);
+        if (!bindValues.isEmpty()) {
+            // repeating the last value doesn't change the result
+            final Object last = bindValues.get(bindValues.size() - 1);
+            for (int i = bindValues.size(); i < getPaddedSize(values.size()); i++) {
+                bindValues.add(last);
+            }
+        }
+        return bindValues;
+    }
+
+    public static InListStatistics getInListStatistics() {
+        return IN_LIST_STATISTICS;
+    }
+
+    private static int getPaddedSize(final int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static List<Object> toBindValues(final Collection<?> values) {
+        final List<Object> bindValues = new ArrayList<>(values.size());
+        for (Object value : values) {
+            bindValues.add(value instanceof Enum ? ((Enum) value).name() : value);
+        }
+        return bindValues;
+    }
+
+    /**
+     * Clause appended to an insert statement so that it updates the given, already escaped, columns of the row
+     * conflicting on the key columns.
+     */
+    public String buildUpsertClause(final List<String> keyColumns, final List<String> updatedColumns) {
+        final StringBuilder builder = new StringBuilder(" on duplicate key update ");
+        if (updatedColumns.isEmpty()) {
+            // nothing to update, assign a key column to itself to ignore the duplicate
+            builder.append(keyColumns.get(0)).append(" = ").append(keyColumns.get(0));
+        } else {
+            for (int i = 0; i < updatedColumns.size(); i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(updatedColumns.get(i)).append(" = values(").append(updatedColumns.get(i)).append(")");
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Creates a table of ids only visible from the current connection, which has to be used within a transaction.
+     * The id column has the type of the id columns of the schema so that joins can use their indexes.
+     */
+    public String buildCreateTemporaryIdTable(final String tableName) {
+        return "create temporary table " + tableName + " ( id nvarchar(64) not null primary key )";
+    }
+
+    public String buildDropTemporaryTable(final String tableName) {
+        // the temporary keyword avoids the implicit commit of a drop table
+        return "drop temporary table if exists " + tableName;
+    }
+
+    /**
+     * Query returning the names of the partitions of the table given as parameter.
+     */
+    public String buildListPartitions() {
+        return "select partition_name from information_schema.partitions"
+                + " where table_schema = database() and table_name = ? and partition_name is not null";
+    }
+
+    /**
+     * Statements adding the partitions of the given months, in ascending order and all after the existing ones, to a
+     * table partitioned by range of <code>created_at</code>. Each partition is named by {@link #getPartitionName(String, YearMonth)}.
+     */
+    public List<String> buildCreateMonthlyPartitions(final String tableName, final List<YearMonth> months) {
+        // the catch-all partition is split so that it stays the last one
+        final StringBuilder builder = new StringBuilder("alter table ").append(tableName).append(" reorganize partition p_max into (");
+        for (YearMonth month : months) {
+            builder.append("partition ").append(getPartitionName(tableName, month))
+                    .append(" values less than (unix_timestamp('").append(month.plusMonths(1).atDay(1)).append(" 00:00:00')), ");
+        }
+        return singletonList(builder.append("partition p_max values less than maxvalue)").toString());
+    }
+
+    public String buildDropPartition(final String tableName, final YearMonth month) {
+        return "alter table " + tableName + " drop partition " + getPartitionName(tableName, month);
+    }
+
+    public String getPartitionName(final String tableName, final YearMonth month) {
+        return "p" + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.management.api.AuditRepository;
+import io.gravitee.repository.management.api.search.AuditCriteria;
+import io.gravitee.repository.management.model.Audit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The audit operations of the JDBC repository that {@link AuditRepository} doesn't have. Callers inject it instead of
+ * {@link AuditRepository} to use them.
+ *
+ * @author GraviteeSource Team
+ */
+public interface ExtendedAuditRepository extends AuditRepository {
+
+    /**
+     * Exports all the audits matching the filter, oldest first, to the sink, whatever their number: unlike a search,
+     * the audits aren't held in memory.
+     *
+     * @return the number of exported audits
+     */
+    long export(AuditCriteria filter, AuditSink sink) throws TechnicalException;
+
+    /**
+     * Receives the exported audits, one at a time.
+     */
+    @FunctionalInterface
+    interface AuditSink {
+
+        void accept(Audit audit) throws IOException;
+
+        /**
+         * Sink writing each audit as a line of JSON. The stream is neither flushed nor closed.
+         */
+        static AuditSink toNdjson(final OutputStream out) {
+            final ObjectMapper mapper = new ObjectMapper();
+            return audit -> {
+                out.write(mapper.writeValueAsBytes(audit));
+                out.write('\n');
+            };
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.media.api.MediaRepository;
+import io.gravitee.repository.media.model.Media;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * The media operations of the JDBC repository that {@link MediaRepository} doesn't have: batched and streamed saves,
+ * streamed reads and the cleanup of the contents. Callers inject it instead of {@link MediaRepository} to use them.
+ *
+ * @author GraviteeSource Team
+ */
+public interface ExtendedMediaRepository extends MediaRepository {
+
+    /**
+     * Saves several media in a single transaction, by batches of <code>management.jdbc.batch.size</code>. The size
+     * of a media is taken from its data when not set.
+     */
+    void saveAll(Collection<Media> medias) throws TechnicalException;
+
+    /**
+     * Saves a media whose content is read from the given stream, instead of its data, so that the content is never
+     * held in memory. The size of the media is required and has to be the number of bytes of the stream. The stream
+     * isn't read when a media with the same hash is already stored.
+     */
+    String save(Media media, InputStream data) throws TechnicalException;
+
+    /**
+     * Copies the content of a media to the given stream, through a fixed size buffer, where the finders of
+     * {@link MediaRepository} load the whole content.
+     *
+     * @return <code>false</code> if there is no such media
+     */
+    boolean writeData(String hash, String api, String mediaType, OutputStream out) throws TechnicalException;
+
+    /**
+     * Deletes the media having the given hash, for the given API if any. Their content is deleted too once no other
+     * media has the same hash.
+     */
+    void delete(String hash, String api, String mediaType) throws TechnicalException;
+
+    /**
+     * Deletes the contents no media refers to anymore, meant for a maintenance job.
+     *
+     * @return the number of deleted contents
+     */
+    int deleteUnreferencedBlobs() throws TechnicalException;
+}
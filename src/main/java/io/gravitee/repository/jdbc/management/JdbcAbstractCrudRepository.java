@@ -16,18 +16,22 @@
 package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import javax.annotation.PostConstruct;
+import java.util.*;
+
+import static java.util.Collections.unmodifiableMap;
 
 /**
  *
@@ -37,9 +41,26 @@ public abstract class JdbcAbstractCrudRepository<T, I> extends JdbcAbstractPagea
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcAbstractCrudRepository.class);
 
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
     @Autowired
     protected JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    protected SqlDialect dialect;
+
+    @Autowired
+    protected JdbcChunkedInQuery chunkedInQuery;
+
+    // immutable copy of the whole table, keyed by id, under the name of the table
+    private JdbcCache<String, Map<I, T>> snapshot;
+
     protected abstract JdbcObjectMapper getOrm();
 
     protected abstract I getId(T item);
@@ -48,10 +69,62 @@ public abstract class JdbcAbstractCrudRepository<T, I> extends JdbcAbstractPagea
         return getOrm().getRowMapper();
     }
 
+    /**
+     * Small reference tables which rarely change may override this method to serve {@link #findById(Object)}
+     * and {@link #findAll()} from an in-memory snapshot of the whole table. The snapshot is evicted by each write
+     * made through this repository and reloaded by the next read, and, to catch writes made by other nodes, once it
+     * is older than <code>management.jdbc.cache.snapshot.refreshInterval</code> milliseconds.
+     */
+    protected boolean isSnapshotEnabled() {
+        return false;
+    }
+
+    @PostConstruct
+    void initSnapshot() {
+        if (isSnapshotEnabled()) {
+            snapshot = JdbcCache.fromEnvironment(environment, getOrm().getTableName(), 1);
+        }
+    }
+
+    private Map<I, T> getSnapshot() {
+        return snapshot.get(getOrm().getTableName(), table -> {
+            final List<T> items = jdbcTemplate.query(getOrm().getSelectAllSql(dialect), getRowMapper());
+            final Map<I, T> itemsById = new LinkedHashMap<>(items.size());
+            for (final T item : items) {
+                itemsById.put(getId(item), item);
+            }
+            return unmodifiableMap(itemsById);
+        });
+    }
+
+    private void evictSnapshot() {
+        if (snapshot != null) {
+            snapshot.evict(getOrm().getTableName());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T copy(T item) {
+        return (T) getOrm().copy(item);
+    }
+
+    /**
+     * Builds the item returned by {@link #create(Object)} and {@link #update(Object)} from the written one, as it
+     * would be read back, so that writes don't have to query it again. None of the managed tables has database
+     * generated values, hence a copy of the mapped columns is enough; repositories storing children in other tables,
+     * or columns written by their own statement creators, have to override this method to copy them too.
+     */
+    protected T toPersisted(T item) {
+        return copy(item);
+    }
+
     public Optional<T> findById(I id) throws TechnicalException {
         LOGGER.debug("JdbcAbstractCrudRepository<{}>.findById({})", getOrm().getTableName(), id);
         try {
-            List<T> items = jdbcTemplate.query(getOrm().getSelectByIdSql()
+            if (isSnapshotEnabled()) {
+                return Optional.ofNullable(copy(getSnapshot().get(id)));
+            }
+            List<T> items = jdbcTemplate.query(getOrm().getSelectByIdSql(dialect)
                     , getRowMapper()
                     , id
             );
@@ -65,7 +138,14 @@ public abstract class JdbcAbstractCrudRepository<T, I> extends JdbcAbstractPagea
     public Set<T> findAll() throws TechnicalException {
         LOGGER.debug("JdbcAbstractCrudRepository<{}>.findAll()", getOrm().getTableName());
         try {
-            List<T> items = jdbcTemplate.query(getOrm().getSelectAllSql(), getRowMapper());
+            if (isSnapshotEnabled()) {
+                final Set<T> items = new HashSet<>();
+                for (final T item : getSnapshot().values()) {
+                    items.add(copy(item));
+                }
+                return items;
+            }
+            List<T> items = jdbcTemplate.query(getOrm().getSelectAllSql(dialect), getRowMapper());
             return new HashSet<>(items);
         } catch (final Exception ex) {
             LOGGER.error("Failed to find all {} items:", getOrm().getTableName(), ex);
@@ -77,15 +157,50 @@ public abstract class JdbcAbstractCrudRepository<T, I> extends JdbcAbstractPagea
         LOGGER.debug("JdbcAbstractCrudRepository<{}>.create({})", getOrm().getTableName(), item);
         try {
             jdbcTemplate.update(buildInsertPreparedStatementCreator(item));
-            return findById(getId(item)).orElse(null);
+            evictSnapshot();
+            return toPersisted(item);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create {} item:", getOrm().getTableName(), ex);
             throw new TechnicalException("Failed to create " + getOrm().getTableName() + " item.", ex);
         }
     }
 
+    /**
+     * Inserts all the items in a single transaction, sending them as JDBC batches of
+     * <code>management.jdbc.batch.size</code> statements instead of one round trip per item. It is meant for the
+     * repositories creating many rows of their own table at once, such as portal notifications; child rows are
+     * batched by the repositories writing them, or by {@link JdbcChildTableSynchronizer}.
+     * The items are written through {@link #getBatchInsertSql()} and {@link #buildBatchInsertSetter()}, which only
+     * write the ORM columns: repositories overriding {@link #buildInsertPreparedStatementCreator(Object)} have to
+     * override them too before using this method.
+     */
+    protected void createAll(Collection<T> items) throws TechnicalException {
+        LOGGER.debug("JdbcAbstractCrudRepository<{}>.createAll({} items)", getOrm().getTableName(), items == null ? 0 : items.size());
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        try {
+            final int batchSize = environment.getProperty("management.jdbc.batch.size", Integer.class, DEFAULT_BATCH_SIZE);
+            transactionTemplate.execute(status ->
+                    jdbcTemplate.batchUpdate(getBatchInsertSql(), items, batchSize, buildBatchInsertSetter()));
+            evictSnapshot();
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to create {} items:", getOrm().getTableName(), ex);
+            throw new TechnicalException("Failed to create " + getOrm().getTableName() + " items", ex);
+        }
+    }
+
     protected PreparedStatementCreator buildInsertPreparedStatementCreator(T item) {
-        return getOrm().buildInsertPreparedStatementCreator(item);
+        return getOrm().buildInsertPreparedStatementCreator(dialect, item);
+    }
+
+    protected String getBatchInsertSql() {
+        return getOrm().getInsertSql(dialect);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected ParameterizedPreparedStatementSetter<T> buildBatchInsertSetter() {
+        return getOrm().buildBatchInsertSetter();
     }
 
     public T update(T item) throws TechnicalException {
@@ -98,7 +213,8 @@ public abstract class JdbcAbstractCrudRepository<T, I> extends JdbcAbstractPagea
             if (rows == 0) {
                 throw new IllegalStateException("Unable to update " + getOrm().getTableName() + " " + getId(item));
             } else {
-                return findById(getId(item)).orElse(null);
+                evictSnapshot();
+                return toPersisted(item);
             }
         } catch (IllegalStateException ex) {
             throw ex;
@@ -109,13 +225,14 @@ public abstract class JdbcAbstractCrudRepository<T, I> extends JdbcAbstractPagea
     }
 
     protected PreparedStatementCreator buildUpdatePreparedStatementCreator(T item) {
-        return getOrm().buildUpdatePreparedStatementCreator(item, getId(item));
+        return getOrm().buildUpdatePreparedStatementCreator(dialect, item, getId(item));
     }
 
     public void delete(I id) throws TechnicalException {
         LOGGER.debug("JdbcAbstractCrudRepository<{}>.delete({})", getOrm().getTableName(), id);
         try {
-            jdbcTemplate.update(getOrm().getDeleteSql(), id);
+            jdbcTemplate.update(getOrm().getDeleteSql(dialect), id);
+            evictSnapshot();
         } catch (final Exception ex) {
             LOGGER.error("Failed to delete {} item:", getOrm().getTableName(), ex);
             throw new TechnicalException("Failed to delete " + getOrm().getTableName() + " item", ex);
@@ -48,4 +48,9 @@ public class JdbcApiHeaderRepository extends JdbcAbstractCrudRepository<ApiHeade
     protected String getId(ApiHeader item) {
         return item.getId();
     }
+
+    @Override
+    protected boolean isSnapshotEnabled() {
+        return true;
+    }
 }
@@ -27,7 +27,6 @@ import org.springframework.stereotype.Repository;
 import java.sql.Types;
 import java.util.*;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 
 /**
  *
@@ -67,7 +66,7 @@ public class JdbcApiKeyRepository extends JdbcAbstractCrudRepository<ApiKey, Str
         try {
             List<Object> args = new ArrayList<>();
             StringBuilder query = new StringBuilder();
-            query.append("select * from " + escapeReservedWord("keys") + " ");
+            query.append("select * from " + dialect.escapeReservedWord("keys") + " ");
             boolean first = true;
             if (!akc.isIncludeRevoked()) {
                 first = addClause(first, query);
@@ -75,17 +74,8 @@ public class JdbcApiKeyRepository extends JdbcAbstractCrudRepository<ApiKey, Str
             }
             if ((akc.getPlans() != null) && !akc.getPlans().isEmpty()) {
                 first = addClause(first, query);
-                query.append(" ( plan in ( ");
-                boolean subFirst = true;
-                for (String plan : akc.getPlans()) {
-                    if (!subFirst) {
-                        query.append(", ");
-                    }
-                    subFirst = false;
-                    query.append(" ?");
-                    args.add(plan);
-                }
-                query.append(" ) ) ");
+                query.append(" ( ").append(dialect.buildInCondition("plan", akc.getPlans().size())).append(" ) ");
+                args.addAll(dialect.getInArguments(akc.getPlans()));
             }
             if (akc.getFrom() > 0) {
                 first = addClause(first, query);
@@ -121,7 +111,7 @@ public class JdbcApiKeyRepository extends JdbcAbstractCrudRepository<ApiKey, Str
     public Set<ApiKey> findBySubscription(String subscription) throws TechnicalException {
         LOGGER.debug("JdbcApiKeyRepository.findBySubscription({})", subscription);
         try {
-            List<ApiKey> apiKeys = jdbcTemplate.query("select * from " + escapeReservedWord("keys") + " where subscription = ?"
+            List<ApiKey> apiKeys = jdbcTemplate.query("select * from " + dialect.escapeReservedWord("keys") + " where subscription = ?"
                     , ORM.getRowMapper()
                     , subscription
             );
@@ -136,7 +126,7 @@ public class JdbcApiKeyRepository extends JdbcAbstractCrudRepository<ApiKey, Str
     public Set<ApiKey> findByPlan(String plan) throws TechnicalException {
         LOGGER.debug("JdbcApiKeyRepository.findByPlan({})", plan);
         try {
-            List<ApiKey> items = jdbcTemplate.query("select * from " + escapeReservedWord("keys") + " where plan = ?"
+            List<ApiKey> items = jdbcTemplate.query("select * from " + dialect.escapeReservedWord("keys") + " where plan = ?"
                     , getOrm().getRowMapper()
                     , plan
             );
@@ -17,6 +17,7 @@ package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.common.data.domain.Page;
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
 import io.gravitee.repository.management.api.ApiRepository;
 import io.gravitee.repository.management.api.search.ApiCriteria;
@@ -30,6 +31,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -53,6 +55,12 @@ public class JdbcApiRepository extends JdbcAbstractPageableRepository<Api> imple
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SqlDialect dialect;
+
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(Api.class, "apis", "id")
             .addColumn("id", Types.NVARCHAR, String.class)
             .addColumn("name", Types.NVARCHAR, String.class)
@@ -67,6 +75,10 @@ public class JdbcApiRepository extends JdbcAbstractPageableRepository<Api> imple
             .addColumn("picture", Types.NVARCHAR, String.class)
             .build();
 
+    private static final JdbcChildTableSynchronizer<String, Void> LABELS = JdbcChildTableSynchronizer.forSet("api_labels", "label", String.class, "api_id");
+    private static final JdbcChildTableSynchronizer<String, Void> GROUPS = JdbcChildTableSynchronizer.forSet("api_groups", "group_id", String.class, "api_id");
+    private static final JdbcChildTableSynchronizer<String, Void> VIEWS = JdbcChildTableSynchronizer.forSet("api_views", "View", String.class, "api_id");
+
     private static final JdbcHelper.ChildAdder<Api> CHILD_ADDER = (Api parent, ResultSet rs) -> {
         Set<String> views = parent.getViews();
         if (views == null) {
@@ -115,11 +127,14 @@ public class JdbcApiRepository extends JdbcAbstractPageableRepository<Api> imple
     public Api create(Api item) throws TechnicalException {
         LOGGER.debug("JdbcApiRepository.create({})", item);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(item));
-            storeLabels(item, false);
-            storeGroups(item, false);
-            storeViews(item, false);
-            return findById(item.getId()).orElse(null);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, item));
+                storeLabels(item, false);
+                storeGroups(item, false);
+                storeViews(item, false);
+                return null;
+            });
+            return toPersisted(item);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create api:", ex);
             throw new TechnicalException("Failed to create api", ex);
@@ -133,11 +148,17 @@ public class JdbcApiRepository extends JdbcAbstractPageableRepository<Api> imple
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(api, api.getId()));
-            storeLabels(api, true);
-            storeGroups(api, true);
-            storeViews(api, true);
-            return findById(api.getId()).orElseThrow(() -> new IllegalStateException(format("No api found with id [%s]", api.getId())));
+            transactionTemplate.execute(status -> {
+                int rows = jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, api, api.getId()));
+                if (rows == 0) {
+                    throw new IllegalStateException(format("No api found with id [%s]", api.getId()));
+                }
+                storeLabels(api, true);
+                storeGroups(api, true);
+                storeViews(api, true);
+                return null;
+            });
+            return toPersisted(api);
         } catch (final IllegalStateException ex) {
             throw ex;
         } catch (final Exception ex) {
@@ -146,11 +167,22 @@ public class JdbcApiRepository extends JdbcAbstractPageableRepository<Api> imple
         }
     }
 
+    private Api toPersisted(Api api) {
+        final Api persisted = (Api) ORM.copy(api);
+        persisted.setLabels(new ArrayList<>(ORM.filterStrings(api.getLabels())));
+        persisted.setGroups(new HashSet<>(ORM.filterStrings(api.getGroups())));
+        persisted.setViews(new HashSet<>(ORM.filterStrings(api.getViews())));
+        return persisted;
+    }
+
     @Override
     public void delete(String id) throws TechnicalException {
-        jdbcTemplate.update("delete from api_labels where api_id = ?", id);
-        jdbcTemplate.update("delete from api_views where api_id = ?", id);
-        jdbcTemplate.update(ORM.getDeleteSql(), id);
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.update("delete from api_labels where api_id = ?", id);
+            jdbcTemplate.update("delete from api_views where api_id = ?", id);
+            jdbcTemplate.update(ORM.getDeleteSql(dialect), id);
+            return null;
+        });
     }
 
     private List<String> getLabels(String apiId) {
@@ -158,13 +190,11 @@ public class JdbcApiRepository extends JdbcAbstractPageableRepository<Api> imple
     }
 
     private void storeLabels(Api api, boolean deleteFirst) {
-        if (deleteFirst) {
-            jdbcTemplate.update("delete from api_labels where api_id = ?", api.getId());
-        }
         List<String> filteredLabels = ORM.filterStrings(api.getLabels());
-        if (!filteredLabels.isEmpty()) {
-            jdbcTemplate.batchUpdate("insert into api_labels (api_id, label) values ( ?, ? )"
-                    , ORM.getBatchStringSetter(api.getId(), filteredLabels));
+        if (deleteFirst) {
+            LABELS.synchronize(jdbcTemplate, filteredLabels, api.getId());
+        } else {
+            LABELS.insert(jdbcTemplate, filteredLabels, api.getId());
         }
     }
 
@@ -173,24 +203,20 @@ public class JdbcApiRepository extends JdbcAbstractPageableRepository<Api> imple
     }
 
     private void storeGroups(Api api, boolean deleteFirst) {
-        if (deleteFirst) {
-            jdbcTemplate.update("delete from api_groups where api_id = ?", api.getId());
-        }
         List<String> filteredGroups = ORM.filterStrings(api.getGroups());
-        if (!filteredGroups.isEmpty()) {
-            jdbcTemplate.batchUpdate("insert into api_groups ( api_id, group_id ) values ( ?, ? )"
-                    , ORM.getBatchStringSetter(api.getId(), filteredGroups));
+        if (deleteFirst) {
+            GROUPS.synchronize(jdbcTemplate, filteredGroups, api.getId());
+        } else {
+            GROUPS.insert(jdbcTemplate, filteredGroups, api.getId());
         }
     }
 
     private void storeViews(Api api, boolean deleteFirst) {
-        if (deleteFirst) {
-            jdbcTemplate.update("delete from api_views where api_id = ?", api.getId());
-        }
         List<String> filteredViews = ORM.filterStrings(api.getViews());
-        if (!filteredViews.isEmpty()) {
-            jdbcTemplate.batchUpdate("insert into api_views ( api_id, View ) values ( ?, ? )"
-                    , ORM.getBatchStringSetter(api.getId(), filteredViews));
+        if (deleteFirst) {
+            VIEWS.synchronize(jdbcTemplate, filteredViews, api.getId());
+        } else {
+            VIEWS.insert(jdbcTemplate, filteredViews, api.getId());
         }
     }
 
@@ -238,10 +264,10 @@ public class JdbcApiRepository extends JdbcAbstractPageableRepository<Api> imple
 
             sbQuery.append("where 1 = 1 ");
             if (!CollectionUtils.isEmpty(apiCriteria.getGroups())) {
-                sbQuery.append("and ag.group_id in (").append(ORM.buildInClause(apiCriteria.getGroups())).append(") ");
+                sbQuery.append("and ").append(dialect.buildInCondition("ag.group_id", apiCriteria.getGroups().size())).append(" ");
             }
             if (!CollectionUtils.isEmpty(apiCriteria.getIds())) {
-                sbQuery.append("and a.id in (").append(ORM.buildInClause(apiCriteria.getIds())).append(") ");
+                sbQuery.append("and ").append(dialect.buildInCondition("a.id", apiCriteria.getIds().size())).append(" ");
             }
             if (!StringUtils.isEmpty(apiCriteria.getLabel())) {
                 sbQuery.append("and al.label = ? ");
@@ -268,10 +294,10 @@ public class JdbcApiRepository extends JdbcAbstractPageableRepository<Api> imple
                     int lastIndex = 1;
                     if (apiCriteria != null) {
                         if (!CollectionUtils.isEmpty(apiCriteria.getGroups())) {
-                            lastIndex = ORM.setArguments(ps, apiCriteria.getGroups(), lastIndex);
+                            lastIndex = ORM.setArguments(dialect, ps, apiCriteria.getGroups(), lastIndex);
                         }
                         if (!CollectionUtils.isEmpty(apiCriteria.getIds())) {
-                            lastIndex = ORM.setArguments(ps, apiCriteria.getIds(), lastIndex);
+                            lastIndex = ORM.setArguments(dialect, ps, apiCriteria.getIds(), lastIndex);
                         }
                         if (!StringUtils.isEmpty(apiCriteria.getLabel())) {
                             ps.setString(lastIndex++, apiCriteria.getLabel());
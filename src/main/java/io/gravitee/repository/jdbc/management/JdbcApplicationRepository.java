@@ -89,7 +89,7 @@ public class JdbcApplicationRepository extends JdbcAbstractCrudRepository<Applic
     public Application create(Application item) throws TechnicalException {
         LOGGER.debug("JdbcApplicationRepository.create({})", item);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(item));
+            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, item));
             storeGroups(item, false);
             return findById(item.getId()).orElse(null);
         } catch (final Exception ex) {
@@ -105,7 +105,7 @@ public class JdbcApplicationRepository extends JdbcAbstractCrudRepository<Applic
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(application, application.getId()));
+            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, application, application.getId()));
             storeGroups(application, true);
             return findById(application.getId()).orElseThrow(() -> new IllegalStateException(format("No application found with id [%s]", application.getId())));
         } catch (final IllegalStateException ex) {
@@ -130,11 +130,11 @@ public class JdbcApplicationRepository extends JdbcAbstractCrudRepository<Applic
             if (isEmpty(ids)) {
                 return emptySet();
             }
-            List<Application> applications = jdbcTemplate.query("select * from applications where id in ( "
-                    + ORM.buildInClause(ids) + " )"
-                    , (PreparedStatement ps) -> ORM.setArguments(ps, ids, 1)
-                    , ORM.getRowMapper()
-            );
+            List<Application> applications = chunkedInQuery.query(ids, "id", (condition, args) ->
+                    jdbcTemplate.query("select * from applications where " + condition
+                            , args.toArray()
+                            , ORM.getRowMapper()
+                    ));
             for (Application application : applications) {
                 addGroups(application);
             }
@@ -154,10 +154,10 @@ public class JdbcApplicationRepository extends JdbcAbstractCrudRepository<Applic
             
             StringBuilder query = new StringBuilder("select * from applications ");
             boolean first = true;
-            ORM.buildInCondition(first, query, STATUS_FIELD, statuses);
+            ORM.buildInCondition(dialect, first, query, STATUS_FIELD, statuses);
             
             List<Application> applications = jdbcTemplate.query(query.toString()
-                    , (PreparedStatement ps) -> ORM.setArguments(ps, statuses, 1)
+                    , (PreparedStatement ps) -> ORM.setArguments(dialect, ps, statuses, 1)
                     , ORM.getRowMapper()
             );
             for (Application application : applications) {
@@ -178,12 +178,12 @@ public class JdbcApplicationRepository extends JdbcAbstractCrudRepository<Applic
             final List<ApplicationStatus> statuses = Arrays.asList(ass);
             final StringBuilder query = new StringBuilder("select a.* from applications a join application_groups ag on ag.application_id = a.id ");
             boolean first = true;
-            first = ORM.buildInCondition(first, query, "group_id", groupIds);
-            ORM.buildInCondition(first, query, STATUS_FIELD, statuses);
+            first = ORM.buildInCondition(dialect, first, query, "group_id", groupIds);
+            ORM.buildInCondition(dialect, first, query, STATUS_FIELD, statuses);
             List<Application> applications = jdbcTemplate.query(query.toString()
                     , (PreparedStatement ps) -> {
-                        int idx = ORM.setArguments(ps, groupIds, 1);
-                        ORM.setArguments(ps, statuses, idx);
+                        int idx = ORM.setArguments(dialect, ps, groupIds, 1);
+                        ORM.setArguments(dialect, ps, statuses, idx);
                     }
                     , ORM.getRowMapper()
             );
@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes items in the background: they are queued in a bounded queue, then a dedicated thread writes them by batches,
+ * each batch within a single call to the given writer. What happens when the queue is full depends on the
+ * {@link Backpressure}. Closing the writer writes the items still queued.
+ * <p>
+ * An item that can't be written in the background is lost, and counted. Items submitted afterwards are written from
+ * the calling thread, so that their failures reach the caller, until one of them is written.
+ *
+ * @author GraviteeSource Team
+ */
+class JdbcAsyncBatchWriter<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcAsyncBatchWriter.class);
+
+    /**
+     * Behaviour of {@link #submit(Object)} when the queue is full.
+     */
+    enum Backpressure {
+        /** waits for room in the queue */
+        BLOCK,
+        /** drops the item, counting it */
+        DROP,
+        /** writes the item from the calling thread */
+        SPILL
+    }
+
+    @FunctionalInterface
+    interface BatchWriter<T> {
+        void write(List<T> items);
+    }
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final Backpressure backpressure;
+    private final BatchWriter<T> writer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile boolean failing;
+
+    JdbcAsyncBatchWriter(final String name, final int queueSize, final int batchSize, final Backpressure backpressure,
+                         final BatchWriter<T> writer) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.backpressure = backpressure;
+        this.writer = writer;
+        this.thread = new Thread(this::run, "gravitee-jdbc-" + name + "-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void submit(final T item) {
+        if (!running || failing) {
+            writeNow(item);
+            return;
+        }
+        if (queue.offer(item)) {
+            return;
+        }
+        switch (backpressure) {
+            case BLOCK:
+                try {
+                    queue.put(item);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while queuing " + name, ex);
+                }
+                break;
+            case DROP:
+                final long count = dropped.incrementAndGet();
+                LOGGER.warn("{} queue is full, {} dropped so far", name, count);
+                break;
+            default:
+                writer.write(Collections.singletonList(item));
+        }
+    }
+
+    private void writeNow(final T item) {
+        writer.write(Collections.singletonList(item));
+        if (failing) {
+            LOGGER.info("{} written again, back to writing them in the background", name);
+            failing = false;
+        }
+    }
+
+    /**
+     * Number of items dropped because the queue was full.
+     */
+    long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Number of items lost because they failed to be written in the background.
+     */
+    long getFailed() {
+        return failed.get();
+    }
+
+    private void run() {
+        final List<T> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                final T first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("{} writer interrupted, {} items still queued", name, queue.size());
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(final List<T> batch) {
+        LOGGER.debug("Writing {} {}", batch.size(), name);
+        try {
+            writer.write(batch);
+        } catch (final Exception ex) {
+            if (batch.size() == 1) {
+                final long count = failed.incrementAndGet();
+                LOGGER.error("Failed to write {}, it is lost, {} lost so far: {}", name, count, batch.get(0), ex);
+                failing = true;
+                return;
+            }
+            // a single bad item must not lose the whole batch
+            LOGGER.warn("Failed to write a batch of {} {}, writing them one by one", batch.size(), name, ex);
+            for (T item : batch) {
+                write(Collections.singletonList(item));
+            }
+        }
+    }
+
+    /**
+     * Stops the writer once all the queued items are written, waiting at most the given time.
+     * Items submitted afterwards are written from the calling thread.
+     */
+    void close(final long timeoutMillis) {
+        // not interrupted, so that a batch being written isn't aborted; the poll timeout ends the loop
+        running = false;
+        try {
+            thread.join(timeoutMillis);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            LOGGER.warn("{} writer not stopped after {} ms, {} items still queued", name, timeoutMillis, queue.size());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.jdbc.common.SqlDialect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of the audit tables when <code>management.jdbc.audit.partitioning.enabled</code>
+ * is set, the tables being partitioned by Liquibase in that case. At startup, then every
+ * <code>management.jdbc.audit.partitioning.maintenanceInterval</code> ms, it creates the partitions of the next
+ * <code>premadeMonths</code> months and drops the partitions older than <code>retentionMonths</code>, if set.
+ * Dropping a partition removes its audits without the cost of a delete. The catch-all partitions, MySQL's
+ * <code>p_max</code> and PostgreSQL's default ones, are never dropped.
+ *
+ * @author GraviteeSource Team
+ */
+@Component
+@Conditional(JdbcAuditPartitionMaintenance.Enabled.class)
+class JdbcAuditPartitionMaintenance {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcAuditPartitionMaintenance.class);
+
+    private static final int DEFAULT_PREMADE_MONTHS = 3;
+    private static final int DEFAULT_RETENTION_MONTHS = 0;
+    private static final long DEFAULT_MAINTENANCE_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+    private static final String[] TABLES = {"audits", "audit_properties"};
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile(".*p(\\d{4})(\\d{2})$");
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlDialect dialect;
+
+    private int premadeMonths;
+    private int retentionMonths;
+    private ScheduledExecutorService executor;
+
+    static boolean isEnabled(final Environment environment) {
+        return environment.getProperty("management.jdbc.audit.partitioning.enabled", Boolean.class, false);
+    }
+
+    /**
+     * Only creates the maintenance, and so its thread, when the audits are partitioned.
+     */
+    static class Enabled implements Condition {
+
+        @Override
+        public boolean matches(final ConditionContext context, final AnnotatedTypeMetadata metadata) {
+            return isEnabled(context.getEnvironment());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        configure(environment.getProperty("management.jdbc.audit.partitioning.premadeMonths", Integer.class, DEFAULT_PREMADE_MONTHS),
+                environment.getProperty("management.jdbc.audit.partitioning.retentionMonths", Integer.class, DEFAULT_RETENTION_MONTHS));
+        final long interval = environment.getProperty("management.jdbc.audit.partitioning.maintenanceInterval", Long.class, DEFAULT_MAINTENANCE_INTERVAL);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "gravitee-jdbc-audit-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::maintain, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Replaces the months read from the configuration, so that tests can check the retention.
+     */
+    void configure(final int premadeMonths, final int retentionMonths) {
+        this.premadeMonths = premadeMonths;
+        this.retentionMonths = retentionMonths;
+    }
+
+    void maintain() {
+        maintain(YearMonth.now());
+    }
+
+    void maintain(final YearMonth now) {
+        for (String table : TABLES) {
+            try {
+                maintain(table, now);
+            } catch (final Exception ex) {
+                // another node may be doing the same, the next run will catch up
+                LOGGER.error("Failed to maintain the partitions of {}", table, ex);
+            }
+        }
+    }
+
+    private void maintain(final String table, final YearMonth now) {
+        final SortedSet<YearMonth> existing = new TreeSet<>();
+        for (String partition : jdbcTemplate.queryForList(dialect.buildListPartitions(), String.class, table)) {
+            final Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+            if (matcher.matches()) {
+                existing.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+
+        // partitions are only appended after the last one
+        final List<YearMonth> missing = new ArrayList<>();
+        YearMonth month;
+        if (existing.isEmpty()) {
+            // the audits written before the partitioning get the partitions of their months, so that they expire too
+            final YearMonth oldest = getOldestMonth(table);
+            month = oldest != null && oldest.isBefore(now) ? oldest : now;
+        } else {
+            month = existing.last().isBefore(now) ? now : existing.last().plusMonths(1);
+        }
+        while (!month.isAfter(now.plusMonths(premadeMonths))) {
+            missing.add(month);
+            month = month.plusMonths(1);
+        }
+        if (!missing.isEmpty()) {
+            LOGGER.info("Creating the partitions of {} for {}", table, missing);
+            for (String statement : dialect.buildCreateMonthlyPartitions(table, missing)) {
+                jdbcTemplate.execute(statement);
+            }
+        }
+
+        if (retentionMonths > 0) {
+            final YearMonth oldestKept = now.minusMonths(retentionMonths);
+            final SortedSet<YearMonth> partitions = new TreeSet<>(existing);
+            partitions.addAll(missing);
+            for (YearMonth expired : partitions.headSet(oldestKept)) {
+                LOGGER.info("Dropping the partition of {} for {}", table, expired);
+                jdbcTemplate.execute(dialect.buildDropPartition(table, expired));
+            }
+        }
+    }
+
+    private YearMonth getOldestMonth(final String table) {
+        final Timestamp oldest = jdbcTemplate.queryForObject("select min(created_at) from " + table, Timestamp.class);
+        return oldest == null ? null : YearMonth.from(oldest.toLocalDateTime());
+    }
+}
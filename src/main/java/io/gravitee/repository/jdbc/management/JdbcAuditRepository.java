@@ -17,26 +17,28 @@ package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.common.data.domain.Page;
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
-import io.gravitee.repository.management.api.AuditRepository;
 import io.gravitee.repository.management.api.search.AuditCriteria;
 import io.gravitee.repository.management.api.search.Pageable;
 import io.gravitee.repository.management.model.Audit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.sql.PreparedStatement;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.sql.Types;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static io.gravitee.repository.jdbc.management.JdbcHelper.*;
 import static java.lang.String.format;
 
@@ -45,13 +47,85 @@ import static java.lang.String.format;
  * @author njt
  */
 @Repository
-public class JdbcAuditRepository extends JdbcAbstractPageableRepository<Audit> implements AuditRepository {
+public class JdbcAuditRepository extends JdbcAbstractPageableRepository<Audit> implements ExtendedAuditRepository {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcAuditRepository.class);
 
+    private static final int DEFAULT_ASYNC_QUEUE_SIZE = 10000;
+    private static final int DEFAULT_ASYNC_BATCH_SIZE = 500;
+    private static final long DEFAULT_ASYNC_SHUTDOWN_TIMEOUT = 30000;
+    private static final int DEFAULT_EXPORT_CHUNK_SIZE = 1000;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    private JdbcChildTableSynchronizer<String, String> properties;
+
+    @Autowired
+    private SqlDialect dialect;
+
+    private JdbcAsyncBatchWriter<Audit> asyncWriter;
+
+    // partitioned properties also hold the creation date of their audit, which is part of their key
+    private boolean partitioned;
+
+    @PostConstruct
+    public void initSynchronizer() {
+        partitioned = JdbcAuditPartitionMaintenance.isEnabled(environment);
+        if (partitioned) {
+            properties = JdbcChildTableSynchronizer.forMap("audit_properties", dialect.escapeReservedWord("key"), String.class, "value", String.class, "audit_id", "created_at");
+        } else {
+            properties = JdbcChildTableSynchronizer.forMap("audit_properties", dialect.escapeReservedWord("key"), String.class, "value", String.class, "audit_id");
+        }
+    }
+
+    /**
+     * When <code>management.jdbc.audit.async.enabled</code> is set, audits are written in the background by batches
+     * instead of within the call to {@link #create(Audit)}, which returns before the audit is persisted. Audits can
+     * then be lost without the caller knowing: when the queue is full with the <code>drop</code> backpressure, when
+     * they fail to be written, or when they are still queued after the shutdown timeout. Lost audits are logged and
+     * counted by {@link #getDroppedAudits()} and {@link #getFailedAudits()}. After a failure, audits are written
+     * within {@link #create(Audit)} again, failing the call, until one of them is written.
+     */
+    @PostConstruct
+    public void initAsyncWriter() {
+        if (environment.getProperty("management.jdbc.audit.async.enabled", Boolean.class, false)) {
+            final int queueSize = environment.getProperty("management.jdbc.audit.async.queueSize", Integer.class, DEFAULT_ASYNC_QUEUE_SIZE);
+            final int batchSize = environment.getProperty("management.jdbc.audit.async.batchSize", Integer.class, DEFAULT_ASYNC_BATCH_SIZE);
+            final JdbcAsyncBatchWriter.Backpressure backpressure = JdbcAsyncBatchWriter.Backpressure.valueOf(
+                    environment.getProperty("management.jdbc.audit.async.backpressure", "block").toUpperCase());
+            LOGGER.info("Writing audits asynchronously, queue of {}, batches of {}, {} when full", queueSize, batchSize, backpressure);
+            asyncWriter = new JdbcAsyncBatchWriter<>("audits", queueSize, batchSize, backpressure, this::createBatch);
+        }
+    }
+
+    /**
+     * Number of audits dropped because the queue of the asynchronous writer was full.
+     */
+    public long getDroppedAudits() {
+        return asyncWriter == null ? 0 : asyncWriter.getDropped();
+    }
+
+    /**
+     * Number of audits lost because they failed to be written by the asynchronous writer.
+     */
+    public long getFailedAudits() {
+        return asyncWriter == null ? 0 : asyncWriter.getFailed();
+    }
+
+    @PreDestroy
+    public void closeAsyncWriter() {
+        if (asyncWriter != null) {
+            asyncWriter.close(environment.getProperty("management.jdbc.audit.async.shutdownTimeout", Long.class, DEFAULT_ASYNC_SHUTDOWN_TIMEOUT));
+        }
+    }
+
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(Audit.class, "audits", "id")
             .addColumn("id", Types.NVARCHAR, String.class)
             .addColumn("reference_id", Types.NVARCHAR, String.class)
@@ -78,7 +152,7 @@ public class JdbcAuditRepository extends JdbcAbstractPageableRepository<Audit> i
         LOGGER.debug("JdbcAuditRepository.findById({})", id);
         try {
             JdbcHelper.CollatingRowMapper<Audit> rowMapper = new JdbcHelper.CollatingRowMapper<>(ORM.getRowMapper(), CHILD_ADDER, "id");
-            jdbcTemplate.query("select * from audits a left join audit_properties ap on a.id = ap.audit_id where a.id = ?"
+            jdbcTemplate.query("select a.*, ap." + dialect.escapeReservedWord("key") + ", ap.value from audits a left join audit_properties ap on a.id = ap.audit_id where a.id = ?"
                     , rowMapper
                     , id
             );
@@ -96,15 +170,31 @@ public class JdbcAuditRepository extends JdbcAbstractPageableRepository<Audit> i
     public Audit create(Audit item) throws TechnicalException {
         LOGGER.debug("JdbcAuditRepository.create({})", item);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(item));
-            storeProperties(item, false);
-            return findById(item.getId()).orElse(null);
+            if (asyncWriter != null) {
+                // queue a copy, the caller may still change the given audit
+                asyncWriter.submit(toPersisted(item));
+                return toPersisted(item);
+            }
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, item));
+                storeProperties(item, false);
+                return null;
+            });
+            return toPersisted(item);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create audit", ex);
             throw new TechnicalException("Failed to create audit", ex);
         }
     }
 
+    private void createBatch(final List<Audit> audits) {
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(ORM.getInsertSql(dialect), audits, audits.size(), ORM.buildBatchInsertSetter());
+            properties.insertAll(jdbcTemplate, audits, this::getPropertiesParentId, Audit::getProperties);
+            return null;
+        });
+    }
+
     @Override
     public Audit update(final Audit audit) throws TechnicalException {
         LOGGER.debug("JdbcAuditRepository.update({})", audit);
@@ -112,9 +202,15 @@ public class JdbcAuditRepository extends JdbcAbstractPageableRepository<Audit> i
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(audit, audit.getId()));
-            storeProperties(audit, true);
-            return findById(audit.getId()).orElseThrow(() -> new IllegalStateException(format("No audit found with id [%s]", audit.getId())));
+            transactionTemplate.execute(status -> {
+                int rows = jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, audit, audit.getId()));
+                if (rows == 0) {
+                    throw new IllegalStateException(format("No audit found with id [%s]", audit.getId()));
+                }
+                storeProperties(audit, true);
+                return null;
+            });
+            return toPersisted(audit);
         } catch (final IllegalStateException ex) {
             throw ex;
         } catch (final Exception ex) {
@@ -123,33 +219,34 @@ public class JdbcAuditRepository extends JdbcAbstractPageableRepository<Audit> i
         }
     }
 
+    private Audit toPersisted(Audit audit) {
+        final Audit persisted = (Audit) ORM.copy(audit);
+        persisted.setProperties(audit.getProperties() == null ? new HashMap<>() : new HashMap<>(audit.getProperties()));
+        return persisted;
+    }
+
     @Override
     public void delete(String id) throws TechnicalException {
-        jdbcTemplate.update("delete from audit_properties where audit_id = ?", id);
-        jdbcTemplate.update(ORM.getDeleteSql(), id);
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.update("delete from audit_properties where audit_id = ?", id);
+            return jdbcTemplate.update(ORM.getDeleteSql(dialect), id);
+        });
     }
     
     private void storeProperties(Audit audit, boolean deleteFirst) {
-        if (deleteFirst) {
+        if (deleteFirst && partitioned) {
+            // rows keyed by the previous creation date wouldn't be found, they are written again with the current one
             jdbcTemplate.update("delete from audit_properties where audit_id = ?", audit.getId());
+            properties.insert(jdbcTemplate, audit.getProperties(), getPropertiesParentId(audit));
+        } else if (deleteFirst) {
+            properties.synchronize(jdbcTemplate, audit.getProperties(), getPropertiesParentId(audit));
+        } else {
+            properties.insert(jdbcTemplate, audit.getProperties(), getPropertiesParentId(audit));
         }
-        if (audit.getProperties() != null && !audit.getProperties().isEmpty()) {
-            List<Map.Entry<String, String>> entries = new ArrayList<>(audit.getProperties().entrySet());
-            jdbcTemplate.batchUpdate("insert into audit_properties ( audit_id, " + escapeReservedWord("key") + ", value ) values ( ?, ?, ? )"
-                    , new BatchPreparedStatementSetter() {
-                @Override
-                public void setValues(PreparedStatement ps, int i) throws SQLException {
-                    ps.setString(1, audit.getId());
-                    ps.setString(2, entries.get(i).getKey());
-                    ps.setString(3, entries.get(i).getValue());
-                }
+    }
 
-                @Override
-                public int getBatchSize() {
-                    return entries.size();
-                }
-            });
-        }
+    private Object[] getPropertiesParentId(Audit audit) {
+        return partitioned ? new Object[]{audit.getId(), audit.getCreatedAt()} : new Object[]{audit.getId()};
     }
     
     private String criteriaToString(AuditCriteria filter) {
@@ -166,53 +263,160 @@ public class JdbcAuditRepository extends JdbcAbstractPageableRepository<Audit> i
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("JdbcEventRepository.search({}, {})", criteriaToString(filter), page);
         }
+        // audits are filtered and paged on their own, properties are then only read for the audits of the page
         final List<Object> argsList = new ArrayList<>();
-        final StringBuilder builder = new StringBuilder("select * from audits a left join audit_properties ap on a.id = ap.audit_id ");
+        final StringBuilder where = new StringBuilder();
+        addSearchWhereClause(filter, argsList, where);
+
+        final String sql = "select a.* from audits a" + where + " order by a.created_at desc, a.id";
+        LOGGER.debug("SQL: {}", sql);
+        LOGGER.debug("Args: {}", argsList);
+
+        try {
+            final List<Audit> audits;
+            final Page<Audit> result;
+            if (page == null) {
+                audits = jdbcTemplate.query(sql, ORM.getRowMapper(), argsList.toArray());
+                result = new Page<>(audits, 0, audits.size(), audits.size());
+            } else {
+                final long total = jdbcTemplate.queryForObject("select count(*) from audits a" + where, Long.class, argsList.toArray());
+                int start = page.from();
+                if ((start == 0) && (page.pageNumber() > 0)) {
+                    start = page.pageNumber() * page.pageSize();
+                }
+                int rows = page.pageSize();
+                if ((rows == 0) && (page.to() > 0)) {
+                    rows = page.to() - start;
+                }
+                if (rows <= 0 || start >= total) {
+                    audits = new ArrayList<>();
+                } else {
+                    final List<Object> pageArgs = new ArrayList<>(argsList);
+                    pageArgs.add(rows);
+                    pageArgs.add(start);
+                    audits = jdbcTemplate.query(sql + " limit ? offset ?", ORM.getRowMapper(), pageArgs.toArray());
+                }
+                result = new Page<>(audits, page.pageSize() == 0 ? 0 : start / page.pageSize(), audits.size(), total);
+            }
+            addProperties(audits);
+            LOGGER.debug("audit records found ({}): {}", audits.size(), audits);
+            return result;
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to find audit records:", ex);
+            throw new IllegalStateException("Failed to find audit records", ex);
+        }
+    }
+
+    /**
+     * Audits are read by chunks of <code>management.jdbc.audit.export.chunkSize</code>, each one starting after the
+     * last audit of the previous one, so that memory use doesn't depend on the number of audits exported.
+     */
+    @Override
+    public long export(final AuditCriteria filter, final AuditSink sink) throws TechnicalException {
+        return export(filter, sink, environment.getProperty("management.jdbc.audit.export.chunkSize", Integer.class, DEFAULT_EXPORT_CHUNK_SIZE));
+    }
+
+    long export(final AuditCriteria filter, final AuditSink sink, final int chunkSize) throws TechnicalException {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("JdbcAuditRepository.export({})", criteriaToString(filter));
+        }
+        final List<Object> args = new ArrayList<>();
+        final StringBuilder where = new StringBuilder();
+        final boolean started = addSearchWhereClause(filter, args, where);
+        final String sql = "select a.* from audits a" + where + (started ? AND_CLAUSE : WHERE_CLAUSE);
+        try {
+            long count = 0;
+            if (filter.getFrom() <= 0 && filter.getTo() <= 0) {
+                // audits without date can't be ordered by date, they come first
+                count += exportByChunks(sql + "a.created_at is null", " and a.id > ?", " order by a.id",
+                        args, audit -> new Object[]{audit.getId()}, chunkSize, sink);
+            }
+            count += exportByChunks(sql + "a.created_at is not null", " and ( a.created_at > ? or ( a.created_at = ? and a.id > ? ) )",
+                    " order by a.created_at, a.id", args,
+                    audit -> new Object[]{audit.getCreatedAt(), audit.getCreatedAt(), audit.getId()}, chunkSize, sink);
+            LOGGER.debug("JdbcAuditRepository.export() = {} audits", count);
+            return count;
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to export audits:", ex);
+            throw new TechnicalException("Failed to export audits", ex);
+        }
+    }
+
+    private long exportByChunks(final String sql, final String afterCondition, final String orderBy, final List<Object> args,
+                                final Function<Audit, Object[]> key, final int chunkSize, final AuditSink sink) throws IOException {
+        long count = 0;
+        Audit last = null;
+        while (true) {
+            final StringBuilder chunkSql = new StringBuilder(sql);
+            final List<Object> chunkArgs = new ArrayList<>(args);
+            if (last != null) {
+                chunkSql.append(afterCondition);
+                chunkArgs.addAll(Arrays.asList(key.apply(last)));
+            }
+            chunkSql.append(orderBy).append(" limit ?");
+            chunkArgs.add(chunkSize);
+            final List<Audit> audits = jdbcTemplate.query(chunkSql.toString(), ORM.getRowMapper(), chunkArgs.toArray());
+            addProperties(audits);
+            for (Audit audit : audits) {
+                sink.accept(audit);
+            }
+            count += audits.size();
+            if (audits.size() < chunkSize) {
+                return count;
+            }
+            last = audits.get(audits.size() - 1);
+        }
+    }
+
+    private void addProperties(final List<Audit> audits) {
+        if (audits.isEmpty()) {
+            return;
+        }
+        final Map<String, Audit> auditsById = new HashMap<>();
+        Date oldest = null;
+        Date newest = null;
+        for (Audit audit : audits) {
+            audit.setProperties(new HashMap<>());
+            auditsById.put(audit.getId(), audit);
+            if (audit.getCreatedAt() != null) {
+                oldest = oldest == null || audit.getCreatedAt().before(oldest) ? audit.getCreatedAt() : oldest;
+                newest = newest == null || audit.getCreatedAt().after(newest) ? audit.getCreatedAt() : newest;
+            }
+        }
+        final List<Object> args = new ArrayList<>(dialect.getInArguments(auditsById.keySet()));
+        final StringBuilder sql = new StringBuilder("select audit_id, ").append(dialect.escapeReservedWord("key"))
+                .append(", value from audit_properties where ").append(dialect.buildInCondition("audit_id", auditsById.size()));
+        if (partitioned && oldest != null) {
+            // only reads the partitions of the page
+            sql.append(" and created_at between ? and ?");
+            args.add(oldest);
+            args.add(newest);
+        }
+        jdbcTemplate.query(sql.toString(), (ResultSet rs) -> {
+            final Audit audit = auditsById.get(rs.getString(1));
+            if (audit != null) {
+                audit.getProperties().put(rs.getString(2), rs.getString(3));
+            }
+        }, args.toArray());
+    }
+
+    private boolean addSearchWhereClause(AuditCriteria filter, List<Object> argsList, StringBuilder builder) {
         boolean started = false;
         if (filter.getFrom() > 0) {
-            builder.append(started ? AND_CLAUSE : WHERE_CLAUSE);
-            builder.append("created_at >= ?");
+            builder.append(WHERE_CLAUSE);
+            builder.append("a.created_at >= ?");
             argsList.add(new Date(filter.getFrom()));
             started = true;
         }
         if (filter.getTo() > 0) {
             builder.append(started ? AND_CLAUSE : WHERE_CLAUSE);
-            builder.append("created_at <= ?");
+            builder.append("a.created_at <= ?");
             argsList.add(new Date(filter.getTo()));
             started = true;
         }
         started = addPropertiesWhereClause(filter, argsList, builder, started);
         started = addReferencesWhereClause(filter, argsList, builder, started);
-        addStringsWhereClause(filter.getEvents(), "event", argsList, builder, started);
-
-        builder.append(" order by created_at desc ");
-        
-        String sql = builder.toString();
-        
-        LOGGER.debug("argsList = {}", argsList);
-        Object[] args = argsList.toArray();
-        LOGGER.debug("SQL: {}", sql);
-        LOGGER.debug("Args ({}): {}", args.length, args);
-        for (int i = 0; i < args.length; ++i) {
-            LOGGER.debug("args[{}] = {} {}", i, args[i], args[i].getClass());
-        }
-        
-        List<Audit> audits;
-        try {
-            JdbcHelper.CollatingRowMapper<Audit> rowMapper = new JdbcHelper.CollatingRowMapper<>(ORM.getRowMapper(), CHILD_ADDER, "id");
-            jdbcTemplate.query(sql
-                    , rowMapper
-                    , args
-            );
-            audits = rowMapper.getRows();
-        } catch (final Exception ex) {
-            LOGGER.error("Failed to find audit records:", ex);
-            throw new IllegalStateException("Failed to find audit records", ex);
-        }
-        
-        LOGGER.debug("audit records found ({}): {}", audits.size(), audits);
-
-        return getResultAsPage(page, audits);
+        return addStringsWhereClause(dialect, filter.getEvents(), "a.event", argsList, builder, started);
     }
 
     private boolean addReferencesWhereClause(AuditCriteria filter, List<Object> argsList, StringBuilder builder, boolean started) {
@@ -221,21 +425,19 @@ public class JdbcAuditRepository extends JdbcAbstractPageableRepository<Audit> i
             LOGGER.debug("argsList before loop = {}", argsList);
             builder.append(started ? AND_CLAUSE : WHERE_CLAUSE);
             builder.append("(");
+            boolean first = true;
             for (Entry<Audit.AuditReferenceType, List<String>> ref : filter.getReferences().entrySet()) {
-                builder.append("( reference_type = ? and reference_id in (");
+                if (!first) {
+                    builder.append(" or ");
+                }
+                first = false;
+                builder.append("( a.reference_type = ? and ");
                 argsList.add(ref.getKey().toString());
                 LOGGER.debug("argsList after ref type = {}", argsList);
-                boolean first = true;
-                for (String id : ref.getValue()) {
-                    if (!first) {
-                        builder.append(", ");
-                    }
-                    first = false;
-                    builder.append("?");
-                    argsList.add(id);
-                    LOGGER.debug("argsList after ref id = {}", argsList);
-                }
-                builder.append(") )");
+                builder.append(dialect.buildInCondition("a.reference_id", ref.getValue().size()));
+                argsList.addAll(dialect.getInArguments(ref.getValue()));
+                LOGGER.debug("argsList after ref ids = {}", argsList);
+                builder.append(" )");
                 started = true;
             }
             builder.append(") ");
@@ -246,14 +448,29 @@ public class JdbcAuditRepository extends JdbcAbstractPageableRepository<Audit> i
 
     private boolean addPropertiesWhereClause(AuditCriteria filter, List<Object> argsList, StringBuilder builder, boolean started) {
         if ((filter.getProperties() != null) && !filter.getProperties().isEmpty()) {
-            builder.append(" left join audit_properties prop on prop.audit_id = a.id ");
+            // a semi-join keeps one row per audit, whatever the number of matching properties
             builder.append(started ? AND_CLAUSE : WHERE_CLAUSE);
-            builder.append("(");
+            builder.append("exists ( select 1 from audit_properties prop where prop.audit_id = a.id");
+            if (partitioned) {
+                builder.append(" and prop.created_at = a.created_at");
+            }
+            builder.append(" and (");
             boolean first = true;
             for (Entry<String, String> property : filter.getProperties().entrySet()) {
-                first = addCondition(first, builder, property.getKey(), property.getValue(), argsList);
+                if (!first) {
+                    builder.append(" or ");
+                }
+                first = false;
+                builder.append(" ( prop.").append(dialect.escapeReservedWord("key")).append(" = ? and prop.value ");
+                argsList.add(property.getKey());
+                if (property.getValue() == null) {
+                    builder.append("is null ) ");
+                } else {
+                    builder.append("= ? ) ");
+                    argsList.add(property.getValue());
+                }
             }
-            builder.append(")");
+            builder.append(") )");
             started = true;
         }
         return started;
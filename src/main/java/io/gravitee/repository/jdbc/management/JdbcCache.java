@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of query results, evicting the least recently used entries.
+ * Entries as old as the time to live are reloaded so that writes made by other nodes are eventually seen, a time to
+ * live of 0 disabling the cache.
+ * A value loaded while the cache was being invalidated is returned but not stored, so it can't serve stale data.
+ *
+ * @author GraviteeSource Team
+ */
+class JdbcCache<K, V> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcCache.class);
+
+    private static final long DEFAULT_TIME_TO_LIVE = 60000;
+
+    private final String name;
+    private final long timeToLive;
+    private final Map<K, Entry<V>> entries;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private static class Entry<V> {
+
+        private final V value;
+        private final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    JdbcCache(final String name, final int maxSize, final long timeToLive) {
+        this.name = name;
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Creates a cache whose entries live for <code>management.jdbc.cache.snapshot.refreshInterval</code> ms, the
+     * time to live shared by all the caches of the repositories.
+     */
+    static <K, V> JdbcCache<K, V> fromEnvironment(final Environment environment, final String name, final int maxSize) {
+        return new JdbcCache<>(name, maxSize, getTimeToLive(environment));
+    }
+
+    static long getTimeToLive(final Environment environment) {
+        return environment.getProperty("management.jdbc.cache.snapshot.refreshInterval", Long.class, DEFAULT_TIME_TO_LIVE);
+    }
+
+    V get(final K key, final Function<K, V> loader) {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null || System.currentTimeMillis() - entry.loadedAt >= timeToLive) {
+            LOGGER.debug("Loading {} cache entry {}", name, key);
+            final long expectedInvalidations = invalidations.get();
+            entry = new Entry<>(loader.apply(key), System.currentTimeMillis());
+            synchronized (entries) {
+                if (invalidations.get() == expectedInvalidations) {
+                    entries.put(key, entry);
+                }
+            }
+        }
+        return entry.value;
+    }
+
+    void evict(final K key) {
+        LOGGER.debug("Evicting {} cache entry {}", name, key);
+        invalidations.incrementAndGet();
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    void clear() {
+        LOGGER.debug("Clearing {} cache", name);
+        invalidations.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
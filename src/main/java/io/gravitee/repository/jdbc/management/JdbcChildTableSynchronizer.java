@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Function;
+
+import static io.gravitee.repository.jdbc.management.JdbcHelper.AND_CLAUSE;
+import static io.gravitee.repository.jdbc.management.JdbcHelper.WHERE_CLAUSE;
+
+/**
+ * Keeps the rows of a child table in line with the children of one parent, either a key/value map or a set of values.
+ * Instead of deleting all the rows and inserting them again, the current rows are read and only the needed deletes,
+ * updates and inserts are batched.
+ * Column names are used as given, so reserved words have to be escaped by the caller.
+ * Callers run it within the transaction writing the parent, so that a failure leaves neither the parent nor its
+ * children partially written.
+ *
+ * @author GraviteeSource Team
+ */
+class JdbcChildTableSynchronizer<K, V> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcChildTableSynchronizer.class);
+
+    private final String tableName;
+    private final Class<K> keyType;
+    private final Class<V> valueType;
+    private final String selectSql;
+    private final String insertSql;
+    private final String updateSql;
+    private final String deleteSql;
+
+    private JdbcChildTableSynchronizer(final String tableName, final String[] parentColumns, final String keyColumn, final Class<K> keyType,
+                                       final String valueColumn, final Class<V> valueType) {
+        this.tableName = tableName;
+        this.keyType = keyType;
+        this.valueType = valueType;
+
+        final StringBuilder parentCondition = new StringBuilder();
+        final StringBuilder insertColumns = new StringBuilder();
+        final StringBuilder insertValues = new StringBuilder();
+        for (String parentColumn : parentColumns) {
+            parentCondition.append(parentCondition.length() == 0 ? WHERE_CLAUSE : AND_CLAUSE).append(parentColumn).append(" = ?");
+            insertColumns.append(parentColumn).append(", ");
+            insertValues.append("?, ");
+        }
+        insertColumns.append(keyColumn);
+        insertValues.append("?");
+        if (valueColumn != null) {
+            insertColumns.append(", ").append(valueColumn);
+            insertValues.append(", ?");
+        }
+
+        this.selectSql = "select " + keyColumn + (valueColumn == null ? "" : ", " + valueColumn) + " from " + tableName + parentCondition;
+        this.insertSql = "insert into " + tableName + " ( " + insertColumns + " ) values ( " + insertValues + " )";
+        this.updateSql = valueColumn == null ? null : "update " + tableName + " set " + valueColumn + " = ?" + parentCondition + AND_CLAUSE + keyColumn + " = ?";
+        this.deleteSql = "delete from " + tableName + parentCondition + AND_CLAUSE + keyColumn + " = ?";
+    }
+
+    static <K, V> JdbcChildTableSynchronizer<K, V> forMap(final String tableName, final String keyColumn, final Class<K> keyType,
+                                                          final String valueColumn, final Class<V> valueType, final String... parentColumns) {
+        return new JdbcChildTableSynchronizer<>(tableName, parentColumns, keyColumn, keyType, valueColumn, valueType);
+    }
+
+    static <K> JdbcChildTableSynchronizer<K, Void> forSet(final String tableName, final String column, final Class<K> type,
+                                                          final String... parentColumns) {
+        return new JdbcChildTableSynchronizer<>(tableName, parentColumns, column, type, null, Void.class);
+    }
+
+    /**
+     * Inserts the children of a new parent, which can't have any row yet.
+     */
+    void insert(final JdbcTemplate jdbcTemplate, final Map<K, V> children, final Object... parentId) {
+        if (children != null && !children.isEmpty()) {
+            final List<Object[]> inserts = new ArrayList<>(children.size());
+            for (Map.Entry<K, V> child : children.entrySet()) {
+                inserts.add(insertArgs(parentId, child.getKey(), child.getValue()));
+            }
+            jdbcTemplate.batchUpdate(insertSql, inserts);
+        }
+    }
+
+    /**
+     * Inserts the children of several new parents in one batch.
+     */
+    <P> void insertAll(final JdbcTemplate jdbcTemplate, final Collection<P> parents, final Function<P, Object[]> parentId,
+                       final Function<P, Map<K, V>> children) {
+        final List<Object[]> inserts = new ArrayList<>();
+        for (P parent : parents) {
+            final Map<K, V> parentChildren = children.apply(parent);
+            if (parentChildren != null) {
+                for (Map.Entry<K, V> child : parentChildren.entrySet()) {
+                    inserts.add(insertArgs(parentId.apply(parent), child.getKey(), child.getValue()));
+                }
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(insertSql, inserts);
+        }
+    }
+
+    void insert(final JdbcTemplate jdbcTemplate, final Collection<K> children, final Object... parentId) {
+        insert(jdbcTemplate, toMap(children), parentId);
+    }
+
+    void synchronize(final JdbcTemplate jdbcTemplate, final Map<K, V> children, final Object... parentId) {
+        final Map<K, V> current = new HashMap<>();
+        jdbcTemplate.query(selectSql, (ResultSet rs) -> {
+            current.put(read(rs, 1, keyType), updateSql == null ? null : read(rs, 2, valueType));
+        }, parentId);
+
+        final Map<K, V> wanted = children == null ? Collections.emptyMap() : children;
+        final List<Object[]> deletes = new ArrayList<>();
+        final List<Object[]> updates = new ArrayList<>();
+        final List<Object[]> inserts = new ArrayList<>();
+        for (K key : current.keySet()) {
+            if (!wanted.containsKey(key)) {
+                deletes.add(append(parentId, key));
+            }
+        }
+        for (Map.Entry<K, V> child : wanted.entrySet()) {
+            if (!current.containsKey(child.getKey())) {
+                inserts.add(insertArgs(parentId, child.getKey(), child.getValue()));
+            } else if (updateSql != null && !Objects.equals(current.get(child.getKey()), child.getValue())) {
+                final Object[] args = new Object[parentId.length + 2];
+                args[0] = child.getValue();
+                System.arraycopy(parentId, 0, args, 1, parentId.length);
+                args[args.length - 1] = child.getKey();
+                updates.add(args);
+            }
+        }
+        LOGGER.debug("Synchronizing {}: {} deleted, {} updated, {} inserted", tableName, deletes.size(), updates.size(), inserts.size());
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(deleteSql, deletes);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(updateSql, updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(insertSql, inserts);
+        }
+    }
+
+    void synchronize(final JdbcTemplate jdbcTemplate, final Collection<K> children, final Object... parentId) {
+        synchronize(jdbcTemplate, toMap(children), parentId);
+    }
+
+    private Map<K, V> toMap(final Collection<K> values) {
+        final Map<K, V> map = new LinkedHashMap<>();
+        if (values != null) {
+            for (K value : values) {
+                map.put(value, null);
+            }
+        }
+        return map;
+    }
+
+    private Object[] insertArgs(final Object[] parentId, final K key, final V value) {
+        final Object[] args = append(parentId, key);
+        if (updateSql == null) {
+            return args;
+        }
+        final Object[] argsWithValue = Arrays.copyOf(args, args.length + 1);
+        argsWithValue[args.length] = value;
+        return argsWithValue;
+    }
+
+    private static Object[] append(final Object[] values, final Object value) {
+        final Object[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static <T> T read(final ResultSet rs, final int index, final Class<T> type) throws SQLException {
+        final Object value;
+        if (type == Integer.class) {
+            final int intValue = rs.getInt(index);
+            value = rs.wasNull() ? null : intValue;
+        } else {
+            value = rs.getString(index);
+        }
+        return type.cast(value);
+    }
+}
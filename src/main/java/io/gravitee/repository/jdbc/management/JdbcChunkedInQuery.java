@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.jdbc.common.SqlDialect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a query restricted to a list of distinct ids, choosing how to pass the ids according to their number:
+ * <ul>
+ *     <li>up to <code>management.jdbc.inList.chunkSize</code> ids, a single IN condition;</li>
+ *     <li>beyond, one query per chunk of ids, the chunks being run concurrently, each on its own pooled connection,
+ *     when <code>management.jdbc.inList.parallelism</code> is greater than 1; it has to stay below the size of the pool.
+ *     Within a transaction, the chunks are run one after the other on its connection, so that they see its writes;</li>
+ *     <li>from <code>management.jdbc.inList.tempTableThreshold</code> ids, a single query joining a temporary table
+ *     loaded with the ids.</li>
+ * </ul>
+ *
+ * @author GraviteeSource Team
+ */
+@Component
+class JdbcChunkedInQuery {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcChunkedInQuery.class);
+
+    // a power of two, as IN lists are padded to the next one
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+    private static final int DEFAULT_PARALLELISM = 1;
+    private static final int DEFAULT_TEMP_TABLE_THRESHOLD = 10000;
+
+    private static final String TEMP_TABLE = "gravitee_in_ids";
+
+    /**
+     * Query restricted by a condition on a column, taking the arguments of the condition.
+     */
+    @FunctionalInterface
+    interface Query<R> {
+        List<R> run(String condition, List<Object> conditionArgs);
+    }
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SqlDialect dialect;
+
+    private int chunkSize;
+    private int tempTableThreshold;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        configure(environment.getProperty("management.jdbc.inList.chunkSize", Integer.class, DEFAULT_CHUNK_SIZE),
+                environment.getProperty("management.jdbc.inList.parallelism", Integer.class, DEFAULT_PARALLELISM),
+                environment.getProperty("management.jdbc.inList.tempTableThreshold", Integer.class, DEFAULT_TEMP_TABLE_THRESHOLD));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Replaces the thresholds read from the configuration, so that tests can run every strategy on a few ids.
+     */
+    void configure(final int chunkSize, final int parallelism, final int tempTableThreshold) {
+        destroy();
+        this.chunkSize = chunkSize;
+        this.tempTableThreshold = tempTableThreshold;
+        if (parallelism > 1) {
+            executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                final Thread thread = new Thread(runnable, "gravitee-jdbc-in-query");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Runs the query with a condition checking that the column is one of the ids and returns all the rows.
+     * No query is run for an empty list of ids.
+     */
+    <R> List<R> query(final Collection<String> ids, final String column, final Query<R> query) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<String> list = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (list.size() <= chunkSize) {
+            return runChunk(list, column, query);
+        }
+        if (tempTableThreshold > 0 && list.size() >= tempTableThreshold) {
+            return runWithTempTable(list, column, query);
+        }
+        final List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += chunkSize) {
+            chunks.add(list.subList(i, Math.min(i + chunkSize, list.size())));
+        }
+        LOGGER.debug("Querying {} ids by {} chunks", list.size(), chunks.size());
+
+        final List<R> rows = new ArrayList<>();
+        if (executor == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            for (List<String> chunk : chunks) {
+                rows.addAll(runChunk(chunk, column, query));
+            }
+            return rows;
+        }
+        final List<Future<List<R>>> futures = new ArrayList<>(chunks.size());
+        for (List<String> chunk : chunks) {
+            futures.add(executor.submit(() -> runChunk(chunk, column, query)));
+        }
+        try {
+            for (Future<List<R>> future : futures) {
+                rows.addAll(future.get());
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying by chunks", ex);
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Failed to query by chunks", ex.getCause());
+        } finally {
+            for (Future<List<R>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return rows;
+    }
+
+    private <R> List<R> runChunk(final List<String> chunk, final String column, final Query<R> query) {
+        return query.run(dialect.buildInCondition(column, chunk.size()), dialect.getInArguments(chunk));
+    }
+
+    private <R> List<R> runWithTempTable(final List<String> uniqueIds, final String column, final Query<R> query) {
+        LOGGER.debug("Querying {} ids through a temporary table", uniqueIds.size());
+        // the temporary table only exists for the connection bound to the transaction
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(dialect.buildDropTemporaryTable(TEMP_TABLE));
+            jdbcTemplate.execute(dialect.buildCreateTemporaryIdTable(TEMP_TABLE));
+            try {
+                jdbcTemplate.batchUpdate("insert into " + TEMP_TABLE + " ( id ) values ( ? )", uniqueIds, chunkSize
+                        , (PreparedStatement ps, String id) -> ps.setString(1, id));
+                return query.run(column + " in ( select id from " + TEMP_TABLE + " )", Collections.emptyList());
+            } finally {
+                try {
+                    jdbcTemplate.execute(dialect.buildDropTemporaryTable(TEMP_TABLE));
+                } catch (final RuntimeException ex) {
+                    // the next use drops it first anyway
+                    LOGGER.warn("Failed to drop temporary table {}", TEMP_TABLE, ex);
+                }
+            }
+        });
+    }
+}
@@ -23,17 +23,16 @@ import io.gravitee.repository.management.model.Dictionary;
 import io.gravitee.repository.management.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import java.sql.*;
 import java.util.*;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static io.gravitee.repository.jdbc.orm.JdbcColumn.getDBName;
 import static java.lang.String.format;
 
@@ -57,6 +56,9 @@ public class JdbcDictionaryRepository extends JdbcAbstractCrudRepository<Diction
             .addColumn("deployed_at", Types.TIMESTAMP, Date.class)
             .build();
 
+    private static final JdbcChildTableSynchronizer<String, String> PROPERTIES =
+            JdbcChildTableSynchronizer.forMap("dictionary_property", "k", String.class, "v", String.class, "dictionary_id");
+
     private static final JdbcHelper.ChildAdder<Dictionary> CHILD_ADDER = (Dictionary parent, ResultSet rs) -> {
         Map<String, String> properties = parent.getProperties();
         if (properties == null) {
@@ -129,7 +131,7 @@ public class JdbcDictionaryRepository extends JdbcAbstractCrudRepository<Diction
         }
     }
 
-    private static String buildInsertStatement() {
+    private String buildInsertStatement() {
         final StringBuilder builder = new StringBuilder("insert into dictionaries (");
         boolean first = true;
         for (JdbcColumn column : (List<JdbcColumn>) ORM.getColumns()) {
@@ -137,7 +139,7 @@ public class JdbcDictionaryRepository extends JdbcAbstractCrudRepository<Diction
                 builder.append(", ");
             }
             first = false;
-            builder.append(escapeReservedWord(getDBName(column.name)));
+            builder.append(dialect.escapeReservedWord(getDBName(column.name)));
         }
         builder.append(", provider_type");
         builder.append(", provider_configuration");
@@ -160,9 +162,7 @@ public class JdbcDictionaryRepository extends JdbcAbstractCrudRepository<Diction
         return builder.toString();
     }
 
-    private static final String INSERT_SQL = buildInsertStatement();
-
-    private static String buildUpdateStatement() {
+    private String buildUpdateStatement() {
         StringBuilder builder = new StringBuilder();
         builder.append("update dictionaries set ");
         boolean first = true;
@@ -171,7 +171,7 @@ public class JdbcDictionaryRepository extends JdbcAbstractCrudRepository<Diction
                 builder.append(", ");
             }
             first = false;
-            builder.append(escapeReservedWord(getDBName(column.name)));
+            builder.append(dialect.escapeReservedWord(getDBName(column.name)));
             builder.append(" = ?");
         }
         builder.append(", provider_type = ?");
@@ -183,7 +183,14 @@ public class JdbcDictionaryRepository extends JdbcAbstractCrudRepository<Diction
         return builder.toString();
     }
 
-    private static final String UPDATE_SQL = buildUpdateStatement();
+    private String insertSql;
+    private String updateSql;
+
+    @PostConstruct
+    void initStatements() {
+        insertSql = buildInsertStatement();
+        updateSql = buildUpdateStatement();
+    }
 
     @Override
     protected JdbcObjectMapper getOrm() {
@@ -202,34 +209,19 @@ public class JdbcDictionaryRepository extends JdbcAbstractCrudRepository<Diction
 
     @Override
     protected PreparedStatementCreator buildUpdatePreparedStatementCreator(Dictionary dictionary) {
-        return new Psc(UPDATE_SQL, dictionary, dictionary.getId());
+        return new Psc(updateSql, dictionary, dictionary.getId());
     }
 
     @Override
     protected PreparedStatementCreator buildInsertPreparedStatementCreator(Dictionary dictionary) {
-        return new Psc(INSERT_SQL, dictionary);
+        return new Psc(insertSql, dictionary);
     }
 
     private void storeProperties(Dictionary dictionary, boolean deleteFirst) {
         if (deleteFirst) {
-            jdbcTemplate.update("delete from dictionary_property where dictionary_id = ?", dictionary.getId());
-        }
-        if (dictionary.getProperties() != null && !dictionary.getProperties().isEmpty()) {
-            List<Map.Entry<String, String>> entries = new ArrayList<>(dictionary.getProperties().entrySet());
-            jdbcTemplate.batchUpdate("insert into dictionary_property ( dictionary_id, k, v ) values ( ?, ?, ? )"
-                    , new BatchPreparedStatementSetter() {
-                        @Override
-                        public void setValues(PreparedStatement ps, int i) throws SQLException {
-                            ps.setString(1, dictionary.getId());
-                            ps.setString(2, entries.get(i).getKey());
-                            ps.setString(3, entries.get(i).getValue());
-                        }
-
-                        @Override
-                        public int getBatchSize() {
-                            return entries.size();
-                        }
-                    });
+            PROPERTIES.synchronize(jdbcTemplate, dictionary.getProperties(), dictionary.getId());
+        } else {
+            PROPERTIES.insert(jdbcTemplate, dictionary.getProperties(), dictionary.getId());
         }
     }
 
@@ -253,16 +245,21 @@ public class JdbcDictionaryRepository extends JdbcAbstractCrudRepository<Diction
 
     @Override
     public void delete(String id) throws TechnicalException {
-        jdbcTemplate.update("delete from dictionary_property where dictionary_id = ?", id);
-        jdbcTemplate.update(ORM.getDeleteSql(), id);
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.update("delete from dictionary_property where dictionary_id = ?", id);
+            return jdbcTemplate.update(ORM.getDeleteSql(dialect), id);
+        });
     }
 
     @Override
     public Dictionary create(Dictionary item) throws TechnicalException {
         LOGGER.debug("JdbcDictionaryRepository.create({})", item);
         try {
-            jdbcTemplate.update(buildInsertPreparedStatementCreator(item));
-            storeProperties(item, false);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(buildInsertPreparedStatementCreator(item));
+                storeProperties(item, false);
+                return null;
+            });
             return findById(item.getId()).orElse(null);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create dictionary", ex);
@@ -277,8 +274,11 @@ public class JdbcDictionaryRepository extends JdbcAbstractCrudRepository<Diction
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(buildUpdatePreparedStatementCreator(dictionary));
-            storeProperties(dictionary, true);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(buildUpdatePreparedStatementCreator(dictionary));
+                storeProperties(dictionary, true);
+                return null;
+            });
             return findById(dictionary.getId()).orElseThrow(() ->
                     new IllegalStateException(format("No dictionary found with id [%s]", dictionary.getId())));
         } catch (final IllegalStateException ex) {
@@ -44,4 +44,9 @@ public class JdbcEntryPointRepository extends JdbcAbstractCrudRepository<Entrypo
     protected String getId(Entrypoint item) {
         return item.getId();
     }
+
+    @Override
+    protected boolean isSnapshotEnabled() {
+        return true;
+    }
 }
\ No newline at end of file
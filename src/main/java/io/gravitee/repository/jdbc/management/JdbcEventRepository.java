@@ -17,6 +17,7 @@ package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.common.data.domain.Page;
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
 import io.gravitee.repository.management.api.EventRepository;
 import io.gravitee.repository.management.api.search.EventCriteria;
@@ -26,9 +27,9 @@ import io.gravitee.repository.management.model.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.*;
 import java.util.*;
@@ -58,6 +59,9 @@ public class JdbcEventRepository extends JdbcAbstractPageableRepository<Event> i
             .addColumn("updated_at", Types.TIMESTAMP, Date.class)
             .build();    
 
+    private static final JdbcChildTableSynchronizer<String, String> PROPERTIES =
+            JdbcChildTableSynchronizer.forMap("event_properties", "property_key", String.class, "property_value", String.class, "event_id");
+
     private static final JdbcHelper.ChildAdder<Event> CHILD_ADDER = (Event parent, ResultSet rs) -> {
         Map<String, String> properties = parent.getProperties();
         if (properties == null) {
@@ -72,26 +76,17 @@ public class JdbcEventRepository extends JdbcAbstractPageableRepository<Event> i
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SqlDialect dialect;
+
     private void storeProperties(Event event, boolean deleteFirst) {
         if (deleteFirst) {
-            jdbcTemplate.update("delete from event_properties where event_id = ?", event.getId());
-        }
-        if (event.getProperties() != null) {
-            List<Entry<String, String>> list = new ArrayList<>(event.getProperties().entrySet());
-            jdbcTemplate.batchUpdate("insert into event_properties ( event_id, property_key, property_value ) values ( ?, ?, ? )"
-                    , new BatchPreparedStatementSetter() {
-                @Override
-                public void setValues(PreparedStatement ps, int i) throws SQLException {
-                    ps.setString(1, event.getId());
-                    ps.setString(2, list.get(i).getKey());
-                    ps.setString(3, list.get(i).getValue());
-                }
-
-                @Override
-                public int getBatchSize() {
-                    return list.size();
-                }
-            });
+            PROPERTIES.synchronize(jdbcTemplate, event.getProperties(), event.getId());
+        } else {
+            PROPERTIES.insert(jdbcTemplate, event.getProperties(), event.getId());
         }
     }
 
@@ -115,9 +110,12 @@ public class JdbcEventRepository extends JdbcAbstractPageableRepository<Event> i
     public Event create(Event event) throws TechnicalException {
         LOGGER.debug("JdbcEventRepository.create({})", event);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(event));
-            storeProperties(event, false);
-            return findById(event.getId()).orElse(null);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, event));
+                storeProperties(event, false);
+                return null;
+            });
+            return toPersisted(event);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create event:", ex);
             throw new TechnicalException("Failed to create event", ex);
@@ -131,9 +129,15 @@ public class JdbcEventRepository extends JdbcAbstractPageableRepository<Event> i
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(event, event.getId()));
-            storeProperties(event, true);
-            return findById(event.getId()).orElseThrow(() -> new IllegalStateException(format("No event found with id [%s]", event.getId())));
+            transactionTemplate.execute(status -> {
+                int rows = jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, event, event.getId()));
+                if (rows == 0) {
+                    throw new IllegalStateException(format("No event found with id [%s]", event.getId()));
+                }
+                storeProperties(event, true);
+                return null;
+            });
+            return toPersisted(event);
         } catch (final IllegalStateException ex) {
             throw ex;
         } catch (final Exception ex) {
@@ -142,12 +146,21 @@ public class JdbcEventRepository extends JdbcAbstractPageableRepository<Event> i
         }
     }
     
+    private Event toPersisted(Event event) {
+        final Event persisted = (Event) ORM.copy(event);
+        persisted.setProperties(event.getProperties() == null ? new HashMap<>() : new HashMap<>(event.getProperties()));
+        return persisted;
+    }
+
     @Override
     public void delete(final String id) throws TechnicalException {
         LOGGER.debug("JdbcEventRepository.delete({})", id);
         try {
-            jdbcTemplate.update("delete from event_properties where event_id = ?", id);
-            jdbcTemplate.update(ORM.getDeleteSql(), id);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update("delete from event_properties where event_id = ?", id);
+                jdbcTemplate.update(ORM.getDeleteSql(dialect), id);
+                return null;
+            });
         } catch (final Exception ex) {
             LOGGER.error("Failed to delete event", ex);
             throw new TechnicalException("Failed to delete event", ex);
@@ -186,7 +199,7 @@ public class JdbcEventRepository extends JdbcAbstractPageableRepository<Event> i
 
         if (!isEmpty(filter.getTypes())) {
             final Collection<String> types = filter.getTypes().stream().map(Enum::name).collect(toList());
-            addStringsWhereClause(types, "type", args, builder, started);
+            addStringsWhereClause(dialect, types, "type", args, builder, started);
         }
 
         builder.append(" order by updated_at desc ");
@@ -22,17 +22,20 @@ import io.gravitee.repository.management.model.GenericNotificationConfig;
 import io.gravitee.repository.management.model.NotificationReferenceType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.*;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
 
 /**
  *
@@ -43,6 +46,14 @@ public class JdbcGenericNotificationConfigRepository extends JdbcAbstractCrudRep
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcGenericNotificationConfigRepository.class);
 
+    private static final int DEFAULT_CACHE_MAX_SIZE = 10000;
+
+    @Autowired
+    private Environment environment;
+
+    // all the configs of a reference, with their hooks, keyed by reference type and id
+    private JdbcCache<List<String>, List<GenericNotificationConfig>> configsByReference;
+
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(GenericNotificationConfig.class, "generic_notification_configs", "id")
             .addColumn("id", Types.NVARCHAR, String.class)
             .addColumn("name", Types.NVARCHAR, String.class)
@@ -55,6 +66,22 @@ public class JdbcGenericNotificationConfigRepository extends JdbcAbstractCrudRep
             .addColumn("updated_at", Types.TIMESTAMP, Date.class)
             .build();
 
+    private static final JdbcHelper.ChildAdder<GenericNotificationConfig> CHILD_ADDER = (GenericNotificationConfig parent, ResultSet rs) -> {
+        if (parent.getHooks() == null) {
+            parent.setHooks(new ArrayList<>());
+        }
+        final String hook = rs.getString("hook");
+        if (hook != null) {
+            parent.getHooks().add(hook);
+        }
+    };
+
+    @PostConstruct
+    void initCache() {
+        configsByReference = JdbcCache.fromEnvironment(environment, "generic_notification_configs"
+                , environment.getProperty("management.jdbc.cache.notification.maxSize", Integer.class, DEFAULT_CACHE_MAX_SIZE));
+    }
+
     @Override
     protected JdbcObjectMapper getOrm() {
         return ORM;
@@ -65,51 +92,126 @@ public class JdbcGenericNotificationConfigRepository extends JdbcAbstractCrudRep
         return genericNotificationConfig.getId();
     }
 
+    @Override
+    protected GenericNotificationConfig toPersisted(GenericNotificationConfig genericNotificationConfig) {
+        final GenericNotificationConfig persisted = super.toPersisted(genericNotificationConfig);
+        persisted.setHooks(genericNotificationConfig.getHooks() == null ? new ArrayList<>() : new ArrayList<>(genericNotificationConfig.getHooks()));
+        return persisted;
+    }
+
     @Override
     public GenericNotificationConfig create(GenericNotificationConfig genericNotificationConfig) throws TechnicalException {
-        storeHooks(genericNotificationConfig, false);
-        super.create(genericNotificationConfig);
-        return genericNotificationConfig;
+        LOGGER.debug("JdbcGenericNotificationConfigRepository.create({})", genericNotificationConfig);
+        final List<List<String>> references = Collections.singletonList(getReference(genericNotificationConfig));
+        try {
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, genericNotificationConfig));
+                storeHooks(genericNotificationConfig, false);
+                evictReferences(references);
+                return null;
+            });
+            evictReferences(references);
+            return toPersisted(genericNotificationConfig);
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to create generic notification config:", ex);
+            throw new TechnicalException("Failed to create generic notification config", ex);
+        }
     }
 
     @Override
     public GenericNotificationConfig update(GenericNotificationConfig genericNotificationConfig) throws TechnicalException {
-        storeHooks(genericNotificationConfig, true);
-        return super.update(genericNotificationConfig);
+        LOGGER.debug("JdbcGenericNotificationConfigRepository.update({})", genericNotificationConfig);
+        if (genericNotificationConfig == null) {
+            throw new IllegalStateException("Failed to update null");
+        }
+        try {
+            final List<List<String>> references = transactionTemplate.execute(status -> {
+                // the config may move to another reference, whose configs change too
+                final List<List<String>> updated = new ArrayList<>(findReferences(genericNotificationConfig.getId()));
+                updated.add(getReference(genericNotificationConfig));
+                final int rows = jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, genericNotificationConfig, genericNotificationConfig.getId()));
+                if (rows == 0) {
+                    throw new IllegalStateException(format("No generic notification config found with id [%s]", genericNotificationConfig.getId()));
+                }
+                storeHooks(genericNotificationConfig, true);
+                evictReferences(updated);
+                return updated;
+            });
+            evictReferences(references);
+            return toPersisted(genericNotificationConfig);
+        } catch (final IllegalStateException ex) {
+            throw ex;
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to update generic notification config:", ex);
+            throw new TechnicalException("Failed to update generic notification config", ex);
+        }
     }
 
     @Override
     public void delete(String id) throws TechnicalException {
-        super.delete(id);
-        GenericNotificationConfig genericNotificationConfig = new GenericNotificationConfig();
-        genericNotificationConfig.setId(id);
-        storeHooks(genericNotificationConfig, true);
+        LOGGER.debug("JdbcGenericNotificationConfigRepository.delete({})", id);
+        try {
+            final List<List<String>> references = transactionTemplate.execute(status -> {
+                final List<List<String>> deleted = findReferences(id);
+                jdbcTemplate.update("delete from generic_notification_config_hooks where id = ?", id);
+                jdbcTemplate.update(ORM.getDeleteSql(dialect), id);
+                evictReferences(deleted);
+                return deleted;
+            });
+            evictReferences(references);
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to delete generic notification config:", ex);
+            throw new TechnicalException("Failed to delete generic notification config", ex);
+        }
+    }
+
+    private List<List<String>> findReferences(final String id) {
+        return jdbcTemplate.query("select reference_type, reference_id from generic_notification_configs where id = ?"
+                , (ResultSet rs, int rowNum) -> Arrays.asList(rs.getString(1), rs.getString(2))
+                , id);
+    }
+
+    private static List<String> getReference(final GenericNotificationConfig genericNotificationConfig) {
+        final NotificationReferenceType referenceType = genericNotificationConfig.getReferenceType();
+        return Arrays.asList(referenceType == null ? null : referenceType.name(), genericNotificationConfig.getReferenceId());
+    }
+
+    /**
+     * Called within the transaction writing the configs, then again once it is committed, as a read during the
+     * transaction may have cached the previous configs.
+     */
+    private void evictReferences(final List<List<String>> references) {
+        references.forEach(configsByReference::evict);
     }
 
     @Override
     public List<GenericNotificationConfig> findByReferenceAndHook(String hook, NotificationReferenceType referenceType, String referenceId) throws TechnicalException {
-        return this.findByReference(referenceType, referenceId)
-                .stream()
-                .filter(genericNotificationConfig ->
-                        genericNotificationConfig.getHooks().contains(hook))
-                .collect(Collectors.toList());
+        LOGGER.debug("JdbcGenericNotificationConfigRepository.findByReferenceAndHook({}, {}, {})", hook, referenceType, referenceId);
+        try {
+            final List<GenericNotificationConfig> items = configsByReference.get(
+                    Arrays.asList(referenceType.name(), referenceId)
+                    , key -> unmodifiableList(queryByReference(referenceType, referenceId)));
+            final List<GenericNotificationConfig> result = new ArrayList<>();
+            for (final GenericNotificationConfig item : items) {
+                if (item.getHooks().contains(hook)) {
+                    final GenericNotificationConfig copy = (GenericNotificationConfig) ORM.copy(item);
+                    copy.setHooks(new ArrayList<>(item.getHooks()));
+                    result.add(copy);
+                }
+            }
+            return result;
+        } catch (final Exception ex) {
+            final String message = "Failed to find notifications by reference and hook";
+            LOGGER.error(message, ex);
+            throw new TechnicalException(message, ex);
+        }
     }
 
     @Override
     public List<GenericNotificationConfig> findByReference(NotificationReferenceType referenceType, String referenceId) throws TechnicalException {
         LOGGER.debug("JdbcGenericNotificationConfigRepository.findByUser({}, {})", referenceType, referenceId);
         try {
-            List<GenericNotificationConfig> items = jdbcTemplate.query(
-                    "select *" +
-                            " from generic_notification_configs" +
-                            " where reference_type = ?" +
-                            " and reference_id = ?"
-                    , getRowMapper()
-                    , referenceType.name()
-                    , referenceId
-            );
-            items.forEach(this::addHooks);
-            return items;
+            return queryByReference(referenceType, referenceId);
         } catch (final Exception ex) {
             final String message = "Failed to find notifications by user";
             LOGGER.error(message, ex);
@@ -117,6 +219,21 @@ public class JdbcGenericNotificationConfigRepository extends JdbcAbstractCrudRep
         }
     }
 
+    private List<GenericNotificationConfig> queryByReference(NotificationReferenceType referenceType, String referenceId) {
+        final JdbcHelper.CollatingRowMapper<GenericNotificationConfig> rowMapper = new JdbcHelper.CollatingRowMapper<>(getRowMapper(), CHILD_ADDER, "id");
+        jdbcTemplate.query("select gnc.*, gnch.hook" +
+                        " from generic_notification_configs gnc" +
+                        " left join generic_notification_config_hooks gnch on gnch.id = gnc.id" +
+                        " where gnc.reference_type = ?" +
+                        " and gnc.reference_id = ?" +
+                        " order by gnc.id"
+                , rowMapper
+                , referenceType.name()
+                , referenceId
+        );
+        return rowMapper.getRows();
+    }
+
     @Override
     public Optional<GenericNotificationConfig> findById(String id) throws TechnicalException {
         Optional<GenericNotificationConfig> optionalConfig = super.findById(id);
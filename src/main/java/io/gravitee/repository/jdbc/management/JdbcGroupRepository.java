@@ -35,7 +35,6 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.*;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static java.lang.String.format;
 
 /**
@@ -47,8 +46,6 @@ public class JdbcGroupRepository extends JdbcAbstractCrudRepository<Group, Strin
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcGroupRepository.class);
 
-    private static final String SELECT_ESCAPED_GROUP_TABLE_NAME = "select * from " + escapeReservedWord("groups");
-
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
@@ -78,7 +75,7 @@ public class JdbcGroupRepository extends JdbcAbstractCrudRepository<Group, Strin
         LOGGER.debug("JdbcGroupRepository.findById({})", id);
         try {
             Optional<Group> group = jdbcTemplate.query(
-                    SELECT_ESCAPED_GROUP_TABLE_NAME + " g where id = ?"
+                    ORM.getSelectAllSql(dialect) + " g where id = ?"
                     , ORM.getRowMapper()
                     , id
             )
@@ -98,9 +95,12 @@ public class JdbcGroupRepository extends JdbcAbstractCrudRepository<Group, Strin
     @Override
     public Group create(final Group group) throws TechnicalException {
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(group));
-            storeGroupEvents(group, false);
-            storeGroupRoles(group, false);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, group));
+                storeGroupEvents(group, false);
+                storeGroupRoles(group, false);
+                return null;
+            });
             return findById(group.getId()).orElse(null);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create group", ex);
@@ -114,9 +114,12 @@ public class JdbcGroupRepository extends JdbcAbstractCrudRepository<Group, Strin
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(group, group.getId()));
-            storeGroupEvents(group, true);
-            storeGroupRoles(group, true);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, group, group.getId()));
+                storeGroupEvents(group, true);
+                storeGroupRoles(group, true);
+                return null;
+            });
             return findById(group.getId()).orElseThrow(() -> new IllegalStateException(format("No group found with id [%s]", group.getId())));
         } catch (final IllegalStateException ex) {
             throw ex;
@@ -128,7 +131,7 @@ public class JdbcGroupRepository extends JdbcAbstractCrudRepository<Group, Strin
 
     @Override
     public void delete(final String id) throws TechnicalException {
-        jdbcTemplate.update(ORM.getDeleteSql(), id);
+        jdbcTemplate.update(ORM.getDeleteSql(dialect), id);
     }
 
     private void addGroupEvents(Group parent) {
@@ -218,7 +221,7 @@ public class JdbcGroupRepository extends JdbcAbstractCrudRepository<Group, Strin
         LOGGER.debug("JdbcGroupRepository.findAll()");
         try {
             List<Group> rows = jdbcTemplate.query(
-                    SELECT_ESCAPED_GROUP_TABLE_NAME
+                    ORM.getSelectAllSql(dialect)
                     , ORM.getRowMapper());
             Set<Group> groups = new HashSet<>();
             for (Group group : rows) {
@@ -239,13 +242,12 @@ public class JdbcGroupRepository extends JdbcAbstractCrudRepository<Group, Strin
         if (ids == null || ids.isEmpty()) {
             return Collections.emptySet();
         }
-        final StringBuilder query = new StringBuilder(SELECT_ESCAPED_GROUP_TABLE_NAME);
-        ORM.buildInCondition(true, query, "id", ids);
         try {
-            List<Group> rows = jdbcTemplate.query(query.toString()
-                    , (PreparedStatement ps) -> ORM.setArguments(ps, ids, 1)
-                    , ORM.getRowMapper()
-            );
+            List<Group> rows = chunkedInQuery.query(ids, "id", (condition, args) ->
+                    jdbcTemplate.query(ORM.getSelectAllSql(dialect) + " where " + condition
+                            , args.toArray()
+                            , ORM.getRowMapper()
+                    ));
             Set<Group> groups = new HashSet<>();
             for (Group group : rows) {
                 addGroupEvents(group);
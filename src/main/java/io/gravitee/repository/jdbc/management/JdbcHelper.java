@@ -15,6 +15,7 @@
  */
 package io.gravitee.repository.jdbc.management;
 
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 
@@ -134,23 +135,14 @@ public class JdbcHelper {
         return false;
     }
 
-    static boolean addStringsWhereClause(final Collection<String> collection, final String columnName, final List<Object> argsList,
-                                          final StringBuilder builder, boolean started) {
+    static boolean addStringsWhereClause(final SqlDialect dialect, final Collection<String> collection, final String columnName,
+                                          final List<Object> argsList, final StringBuilder builder, boolean started) {
         if (!isEmpty(collection)) {
             builder.append(started ? AND_CLAUSE : WHERE_CLAUSE);
             builder.append("( ");
-            builder.append(columnName);
-            builder.append(" in (");
-            boolean first = true;
-            for (final String item : collection) {
-                if (!first) {
-                    builder.append(", ");
-                }
-                first = false;
-                builder.append("?");
-                argsList.add(item);
-            }
-            builder.append(") ) ");
+            builder.append(dialect.buildInCondition(columnName, collection.size()));
+            builder.append(" ) ");
+            argsList.addAll(dialect.getInArguments(collection));
             started = true;
         }
         return started;
@@ -29,6 +29,7 @@ import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.sql.*;
@@ -38,7 +39,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static io.gravitee.repository.jdbc.orm.JdbcColumn.getDBName;
 
 /**
@@ -148,7 +148,7 @@ public class JdbcIdentityProviderRepository extends JdbcAbstractCrudRepository<I
         }
     }
 
-    private static String buildInsertStatement() {
+    private String buildInsertStatement() {
         final StringBuilder builder = new StringBuilder("insert into identity_providers (");
         boolean first = true;
         for (JdbcColumn column : (List<JdbcColumn>) ORM.getColumns()) {
@@ -156,7 +156,7 @@ public class JdbcIdentityProviderRepository extends JdbcAbstractCrudRepository<I
                 builder.append(", ");
             }
             first = false;
-            builder.append(escapeReservedWord(getDBName(column.name)));
+            builder.append(dialect.escapeReservedWord(getDBName(column.name)));
         }
         builder.append(", configuration");
         builder.append(", group_mappings");
@@ -179,9 +179,7 @@ public class JdbcIdentityProviderRepository extends JdbcAbstractCrudRepository<I
         return builder.toString();
     }
 
-    private static final String INSERT_SQL = buildInsertStatement();
-
-    private static String buildUpdateStatement() {
+    private String buildUpdateStatement() {
         StringBuilder builder = new StringBuilder();
         builder.append("update identity_providers set ");
         boolean first = true;
@@ -190,7 +188,7 @@ public class JdbcIdentityProviderRepository extends JdbcAbstractCrudRepository<I
                 builder.append(", ");
             }
             first = false;
-            builder.append(escapeReservedWord(getDBName(column.name)));
+            builder.append(dialect.escapeReservedWord(getDBName(column.name)));
             builder.append(" = ?");
         }
         builder.append(", configuration = ?");
@@ -202,7 +200,14 @@ public class JdbcIdentityProviderRepository extends JdbcAbstractCrudRepository<I
         return builder.toString();
     }
 
-    private static final String UPDATE_SQL = buildUpdateStatement();
+    private String insertSql;
+    private String updateSql;
+
+    @PostConstruct
+    void initStatements() {
+        insertSql = buildInsertStatement();
+        updateSql = buildUpdateStatement();
+    }
 
     @Override
     protected JdbcObjectMapper getOrm() {
@@ -219,13 +224,28 @@ public class JdbcIdentityProviderRepository extends JdbcAbstractCrudRepository<I
         return mapper;
     }
 
+    @Override
+    protected IdentityProvider toPersisted(IdentityProvider identityProvider) {
+        // the JSON columns are written by Psc, out of the ORM
+        final IdentityProvider persisted = super.toPersisted(identityProvider);
+        persisted.setConfiguration(copy(identityProvider.getConfiguration()));
+        persisted.setGroupMappings(copy(identityProvider.getGroupMappings()));
+        persisted.setRoleMappings(copy(identityProvider.getRoleMappings()));
+        persisted.setUserProfileMapping(copy(identityProvider.getUserProfileMapping()));
+        return persisted;
+    }
+
+    private static <K, V> Map<K, V> copy(Map<K, V> map) {
+        return map == null ? null : new HashMap<>(map);
+    }
+
     @Override
     protected PreparedStatementCreator buildUpdatePreparedStatementCreator(IdentityProvider identityProvider) {
-        return new Psc(UPDATE_SQL, identityProvider, identityProvider.getId());
+        return new Psc(updateSql, identityProvider, identityProvider.getId());
     }
 
     @Override
     protected PreparedStatementCreator buildInsertPreparedStatementCreator(IdentityProvider identityProvider) {
-        return new Psc(INSERT_SQL, identityProvider);
+        return new Psc(insertSql, identityProvider);
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Stores the content of media as files of a directory, named after their hash and spread over two levels of
+ * sub-directories taken from the hash. Files are written to a temporary file first, then moved to their name, so
+ * that a content is either complete or missing. They are copied to streams through memory mapping.
+ *
+ * @author GraviteeSource Team
+ */
+class JdbcMediaFileStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcMediaFileStore.class);
+
+    // hashes become file names, nothing else is accepted
+    private static final Pattern HASH = Pattern.compile("[A-Za-z0-9_-]{4,}");
+
+    private final Path directory;
+
+    JdbcMediaFileStore(final Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Writes the content of a hash, unless already there: contents having the same hash are the same.
+     */
+    void write(final String hash, final InputStream data) throws IOException {
+        final Path target = getPath(hash);
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        final Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            Files.copy(data, temp, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads the content to the heap: the callers want a <code>byte[]</code>, which a mapping would only be copied to.
+     * {@link #copy(String, OutputStream)} avoids the copy when the content goes to a stream.
+     *
+     * @return the content of the hash, <code>null</code> if there is none
+     */
+    byte[] read(final String hash) throws IOException {
+        try {
+            return Files.readAllBytes(getPath(hash));
+        } catch (final NoSuchFileException ex) {
+            LOGGER.warn("No content found for media {}", hash);
+            return null;
+        }
+    }
+
+    /**
+     * Copies the content of the hash to the stream, straight from the mapped file.
+     *
+     * @return <code>false</code> if there is no content for the hash
+     */
+    boolean copy(final String hash, final OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(getPath(hash), StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            final WritableByteChannel target = Channels.newChannel(out);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            return true;
+        } catch (final NoSuchFileException ex) {
+            LOGGER.warn("No content found for media {}", hash);
+            return false;
+        }
+    }
+
+    void delete(final String hash) throws IOException {
+        Files.deleteIfExists(getPath(hash));
+    }
+
+    /**
+     * Gives the hashes of all the stored contents to the consumer.
+     */
+    void forEachHash(final Consumer<String> consumer) throws IOException {
+        try (Stream<Path> files = Files.walk(directory, 3)) {
+            files.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> HASH.matcher(name).matches())
+                    .forEach(consumer);
+        }
+    }
+
+    private Path getPath(final String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid media hash: " + hash);
+        }
+        return directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+}
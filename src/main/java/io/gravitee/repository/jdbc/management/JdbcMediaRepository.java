@@ -16,6 +16,7 @@
 package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
 import io.gravitee.repository.management.model.Plan;
 import io.gravitee.repository.media.api.MediaRepository;
@@ -24,63 +25,243 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
-import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
 import javax.sql.DataSource;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.sql.Connection;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.nio.file.Paths;
 import java.sql.Types;
 import java.util.*;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 
 /**
  * @author Guillaume GILLON
  */
 @Repository
-public class JdbcMediaRepository implements MediaRepository {
+public class JdbcMediaRepository implements ExtendedMediaRepository {
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Environment environment;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcMediaRepository.class);
 
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    // the content of media is stored once per hash in media_blobs, shared by all the media having this hash
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(Media.class, "media", "id")
             .addColumn("id", Types.NVARCHAR, String.class)
             .addColumn("type", Types.NVARCHAR, String.class)
             .addColumn("sub_type", Types.NVARCHAR, String.class)
             .addColumn("file_name", Types.NVARCHAR, String.class)
             .addColumn("size", Types.INTEGER, Long.class)
-            .addColumn("data", Types.BLOB, byte[].class)
             .addColumn("created_at", Types.TIMESTAMP, Date.class)
             .addColumn("api", Types.NVARCHAR, String.class)
             .addColumn("hash", Types.NVARCHAR, String.class)
             .build();
 
+    private static final int SWEEP_CHUNK_SIZE = 512;
+
+    private final RowMapper<Media> rowMapper = (ResultSet rs, int rowNum) -> {
+        final Media media = (Media) ORM.getRowMapper().mapRow(rs, rowNum);
+        media.setData(readData(rs, media.getSize()));
+        return media;
+    };
+
+    @Autowired
+    private SqlDialect dialect;
+
+    // set when contents are stored as files, the rows of media_blobs then have no data and only lock the contents
+    private JdbcMediaFileStore fileStore;
+
+    /**
+     * With <code>management.jdbc.media.storage</code> set to <code>filesystem</code>, only the metadata of media are
+     * stored in the database, their contents being files of <code>management.jdbc.media.directory</code>, which
+     * has to be shared by all the nodes. The contents still stored in the database are moved to files at startup;
+     * moving them back isn't supported, so the startup fails if the storage is set back to <code>database</code>.
+     * The contents are only checked when the storage differs from the one recorded by the last startup, or when
+     * <code>management.jdbc.media.migrate</code> is set, to finish a move interrupted on another node for instance.
+     */
+    @PostConstruct
+    public void initStorage() throws IOException {
+        initStorage(environment.getProperty("management.jdbc.media.storage", "database"),
+                environment.getProperty("management.jdbc.media.directory"),
+                environment.getProperty("management.jdbc.media.migrate", Boolean.class, false));
+    }
+
+    void initStorage(final String storage, final String directory, final boolean migrate) throws IOException {
+        final boolean changed = !storage.equalsIgnoreCase(jdbcTemplate.queryForObject("select storage from media_storage", String.class));
+        if ("filesystem".equalsIgnoreCase(storage)) {
+            if (directory == null) {
+                throw new IllegalStateException("management.jdbc.media.directory is required to store media on the filesystem");
+            }
+            LOGGER.info("Storing media contents in {}", directory);
+            fileStore = new JdbcMediaFileStore(Paths.get(directory));
+            if (changed || migrate) {
+                moveContentsToFiles();
+            }
+        } else if ("database".equalsIgnoreCase(storage)) {
+            if ((changed || migrate)
+                    && !jdbcTemplate.queryForList("select hash from media_blobs where data is null limit 1", String.class).isEmpty()) {
+                throw new IllegalStateException("Media contents are stored as files, management.jdbc.media.storage has to be filesystem");
+            }
+            fileStore = null;
+        } else {
+            throw new IllegalStateException("Unknown media storage: " + storage);
+        }
+        if (changed) {
+            // only once the contents are where the storage expects them, an interrupted move is resumed by the next startup
+            jdbcTemplate.update("update media_storage set storage = ?", storage.toLowerCase());
+        }
+    }
+
+    /**
+     * Writes the contents stored in the database to files, one at a time, each row being locked until its data is
+     * cleared so that nodes starting together don't conflict.
+     */
+    private void moveContentsToFiles() {
+        final List<String> hashes = jdbcTemplate.queryForList("select hash from media_blobs where data is not null", String.class);
+        if (hashes.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Moving the contents of {} media to files", hashes.size());
+        for (String hash : hashes) {
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.query("select data from media_blobs where hash = ? and data is not null for update", (ResultSet rs) -> {
+                    try (InputStream in = rs.getBinaryStream(1)) {
+                        fileStore.write(hash, in);
+                    } catch (final IOException ex) {
+                        throw new SQLException("Failed to move the content of media " + hash, ex);
+                    }
+                }, hash);
+                return jdbcTemplate.update("update media_blobs set data = null where hash = ?", hash);
+            });
+        }
+    }
+
     @Override
     public String save(Media media) throws TechnicalException {
         LOGGER.debug("JdbcMediaRepository.create({})", media);
 
+        checkData(media);
         media.setCreatedAt(new Date());
 
         try {
-            Connection conn = DataSourceUtils.getConnection(jdbcTemplate.getDataSource());
-            conn.setAutoCommit(false);
-            PreparedStatement ps = ORM.buildInsertPreparedStatementCreator(media).createPreparedStatement(conn);
+            if (fileStore != null) {
+                // the content is there before any media refers to it, and can't be deleted until the media is committed
+                transactionTemplate.execute(status -> {
+                    lockFile(media.getHash(), media.getSize());
+                    writeFile(media.getHash(), new ByteArrayInputStream(media.getData()));
+                    return jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, media));
+                });
+                return media.getId();
+            }
+            // the connection is only held for the inserts, and given back to the pool whatever happens
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(getInsertBlobSql(), media.getHash(), media.getSize(), media.getData());
+                return jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, media));
+            });
+            return media.getId();
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to create media", ex);
+            throw new TechnicalException("Failed to create media", ex);
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Media> medias) throws TechnicalException {
+        LOGGER.debug("JdbcMediaRepository.saveAll({} media)", medias == null ? 0 : medias.size());
+        if (medias == null || medias.isEmpty()) {
+            return;
+        }
+
+        final Date now = new Date();
+        final Map<String, Media> mediasByHash = new LinkedHashMap<>();
+        for (Media media : medias) {
+            checkData(media);
+            media.setCreatedAt(now);
+            mediasByHash.putIfAbsent(media.getHash(), media);
+        }
+
+        try {
+            final int batchSize = environment.getProperty("management.jdbc.batch.size", Integer.class, DEFAULT_BATCH_SIZE);
+            if (fileStore != null) {
+                transactionTemplate.execute(status -> {
+                    jdbcTemplate.batchUpdate(getInsertBlobSql(), mediasByHash.values(), batchSize,
+                            (PreparedStatement ps, Media media) -> setFileRow(ps, media.getHash(), media.getSize()));
+                    for (Media media : mediasByHash.values()) {
+                        writeFile(media.getHash(), new ByteArrayInputStream(media.getData()));
+                    }
+                    return jdbcTemplate.batchUpdate(ORM.getInsertSql(dialect), medias, batchSize, ORM.buildBatchInsertSetter());
+                });
+                return;
+            }
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.batchUpdate(getInsertBlobSql(), mediasByHash.values(), batchSize, (PreparedStatement ps, Media media) -> {
+                    ps.setString(1, media.getHash());
+                    ps.setLong(2, media.getSize());
+                    ps.setBytes(3, media.getData());
+                });
+                return jdbcTemplate.batchUpdate(ORM.getInsertSql(dialect), medias, batchSize, ORM.buildBatchInsertSetter());
+            });
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to create media", ex);
+            throw new TechnicalException("Failed to create media", ex);
+        }
+    }
 
-            ps.execute();
-            conn.commit();
+    @Override
+    public String save(Media media, InputStream data) throws TechnicalException {
+        LOGGER.debug("JdbcMediaRepository.save({}, stream)", media);
 
+        if (media.getSize() == null) {
+            throw new IllegalArgumentException("The size of media " + media.getHash() + " is required to save it from a stream");
+        }
+        media.setCreatedAt(new Date());
+
+        try {
+            if (fileStore != null) {
+                transactionTemplate.execute(status -> {
+                    lockFile(media.getHash(), media.getSize());
+                    writeFile(media.getHash(), data);
+                    return jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, media));
+                });
+                return media.getId();
+            }
+            transactionTemplate.execute(status -> {
+                if (lockBlob(media.getHash()).isEmpty()) {
+                    jdbcTemplate.update(getInsertBlobSql(), (PreparedStatement ps) -> {
+                        ps.setString(1, media.getHash());
+                        ps.setLong(2, media.getSize());
+                        ps.setBinaryStream(3, data, media.getSize());
+                    });
+                }
+                return jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, media));
+            });
             return media.getId();
         } catch (final Exception ex) {
             LOGGER.error("Failed to create media", ex);
@@ -88,6 +269,268 @@ public class JdbcMediaRepository implements MediaRepository {
         }
     }
 
+    @Override
+    public boolean writeData(String hash, String api, String mediaType, OutputStream out) throws TechnicalException {
+        LOGGER.debug("JdbcMediaRepository.writeData({},{},{})", hash, mediaType, api);
+
+        if (fileStore != null) {
+            try {
+                return findMetadata(hash, api, mediaType).isPresent() && fileStore.copy(hash, out);
+            } catch (final Exception ex) {
+                LOGGER.error("Failed to read media", ex);
+                throw new TechnicalException("Failed to read media", ex);
+            }
+        }
+
+        final StringBuilder sql = new StringBuilder("select b.data from ").append(dialect.escapeReservedWord("media")).append(" m")
+                .append(" join media_blobs b on b.hash = m.hash where m.hash = ? and m.type = ?");
+        final List<Object> params = new ArrayList<>(Arrays.asList(hash, mediaType));
+        if (api != null) {
+            sql.append(" and m.api = ?");
+            params.add(api);
+        }
+
+        try {
+            return jdbcTemplate.query(sql.toString(), (ResultSet rs) -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                try (InputStream in = rs.getBinaryStream(1)) {
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) >= 0) {
+                        out.write(buffer, 0, read);
+                    }
+                } catch (final IOException ex) {
+                    throw new SQLException("Failed to copy media", ex);
+                }
+                return true;
+            }, params.toArray());
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to read media", ex);
+            throw new TechnicalException("Failed to read media", ex);
+        }
+    }
+
+    @Override
+    public void delete(String hash, String api, String mediaType) throws TechnicalException {
+        LOGGER.debug("JdbcMediaRepository.delete({},{},{})", hash, mediaType, api);
+
+        try {
+            if (fileStore != null) {
+                // the file is deleted last, the transaction being rolled back if it can't be
+                transactionTemplate.execute(status -> {
+                    lockFile(hash, 0);
+                    deleteMedia(hash, api, mediaType);
+                    final Integer references = jdbcTemplate.queryForObject("select count(*) from " + dialect.escapeReservedWord("media") + " where hash = ?", Integer.class, hash);
+                    if (references == null || references == 0) {
+                        jdbcTemplate.update("delete from media_blobs where hash = ?", hash);
+                        deleteFile(hash);
+                    }
+                    return null;
+                });
+                return;
+            }
+            // the content stays locked until the commit, a save of the same content waits for it
+            transactionTemplate.execute(status -> {
+                lockBlob(hash);
+                deleteMedia(hash, api, mediaType);
+                return jdbcTemplate.update("delete from media_blobs where hash = ? and not exists ( select 1 from "
+                        + dialect.escapeReservedWord("media") + " m where m.hash = ? )", hash, hash);
+            });
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to delete media", ex);
+            throw new TechnicalException("Failed to delete media", ex);
+        }
+    }
+
+    /**
+     * Locks the contents by chunks before checking their references again, so that a content being saved for a new
+     * media is kept.
+     */
+    @Override
+    public int deleteUnreferencedBlobs() throws TechnicalException {
+        LOGGER.debug("JdbcMediaRepository.deleteUnreferencedBlobs()");
+        try {
+            if (fileStore != null) {
+                return deleteUnreferencedFiles();
+            }
+            final List<String> hashes = jdbcTemplate.queryForList("select b.hash from media_blobs b where not exists ( select 1 from "
+                    + dialect.escapeReservedWord("media") + " m where m.hash = b.hash )", String.class);
+            int deleted = 0;
+            for (int i = 0; i < hashes.size(); i += SWEEP_CHUNK_SIZE) {
+                deleted += deleteUnreferencedBlobs(hashes.subList(i, Math.min(i + SWEEP_CHUNK_SIZE, hashes.size())));
+            }
+            return deleted;
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to delete unreferenced media", ex);
+            throw new TechnicalException("Failed to delete unreferenced media", ex);
+        }
+    }
+
+    private int deleteUnreferencedBlobs(final List<String> hashes) {
+        final String condition = dialect.buildInCondition("hash", hashes.size());
+        final Object[] args = dialect.getInArguments(hashes).toArray();
+        final Integer deleted = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForList("select hash from media_blobs where " + condition + " for update", String.class, args);
+            return jdbcTemplate.update("delete from media_blobs where " + condition + " and not exists ( select 1 from "
+                    + dialect.escapeReservedWord("media") + " m where m.hash = media_blobs.hash )", args);
+        });
+        return deleted == null ? 0 : deleted;
+    }
+
+    private int deleteUnreferencedFiles() throws IOException {
+        final List<String> hashes = new ArrayList<>();
+        final int[] deleted = {0};
+        fileStore.forEachHash(hash -> {
+            hashes.add(hash);
+            if (hashes.size() == SWEEP_CHUNK_SIZE) {
+                deleted[0] += deleteUnreferencedFiles(hashes);
+                hashes.clear();
+            }
+        });
+        if (!hashes.isEmpty()) {
+            deleted[0] += deleteUnreferencedFiles(hashes);
+        }
+        return deleted[0];
+    }
+
+    private int deleteUnreferencedFiles(final List<String> hashes) {
+        final Integer deleted = transactionTemplate.execute(status -> {
+            // locked as a save would, so that a content being saved for a new media is kept
+            jdbcTemplate.batchUpdate(getInsertBlobSql(), hashes, hashes.size(), (PreparedStatement ps, String hash) -> setFileRow(ps, hash, 0));
+            final Set<String> referenced = new HashSet<>(jdbcTemplate.queryForList("select distinct hash from " + dialect.escapeReservedWord("media")
+                    + " where " + dialect.buildInCondition("hash", hashes.size()), String.class, dialect.getInArguments(hashes).toArray()));
+            final List<String> unreferenced = new ArrayList<>();
+            for (String hash : hashes) {
+                if (!referenced.contains(hash)) {
+                    unreferenced.add(hash);
+                }
+            }
+            if (unreferenced.isEmpty()) {
+                return 0;
+            }
+            jdbcTemplate.update("delete from media_blobs where " + dialect.buildInCondition("hash", unreferenced.size()),
+                    dialect.getInArguments(unreferenced).toArray());
+            for (String hash : unreferenced) {
+                deleteFile(hash);
+            }
+            return unreferenced.size();
+        });
+        return deleted == null ? 0 : deleted;
+    }
+
+    private void deleteMedia(final String hash, final String api, final String mediaType) {
+        if (api != null) {
+            jdbcTemplate.update("delete from " + dialect.escapeReservedWord("media") + " where hash = ? and type = ? and api = ?", hash, mediaType, api);
+        } else {
+            jdbcTemplate.update("delete from " + dialect.escapeReservedWord("media") + " where hash = ? and type = ?", hash, mediaType);
+        }
+    }
+
+    /**
+     * Checks that the media has a content, and sets its size from it when missing, as the content is stored with it.
+     */
+    private static void checkData(final Media media) {
+        if (media.getData() == null) {
+            throw new IllegalArgumentException("Media " + media.getHash() + " has no data to save");
+        }
+        if (media.getSize() == null) {
+            media.setSize((long) media.getData().length);
+        }
+    }
+
+    private Optional<Media> findMetadata(String hash, String api, String mediaType) {
+        if (api != null) {
+            return jdbcTemplate.query(selectMetadataSql() + " and m.api = ?", ORM.getRowMapper(), hash, mediaType, api).stream().findFirst();
+        }
+        return jdbcTemplate.query(selectMetadataSql(), ORM.getRowMapper(), hash, mediaType).stream().findFirst();
+    }
+
+    /**
+     * Locks the content of the hash until the end of the current transaction.
+     *
+     * @return the locked hash, empty if there is no such content
+     */
+    private List<String> lockBlob(final String hash) {
+        return jdbcTemplate.queryForList("select hash from media_blobs where hash = ? for update", String.class, hash);
+    }
+
+    /**
+     * Locks the content of the hash stored as a file until the end of the current transaction, through its row of
+     * media_blobs, created without data if needed.
+     */
+    private void lockFile(final String hash, final long size) {
+        jdbcTemplate.update(getInsertBlobSql(), (PreparedStatement ps) -> setFileRow(ps, hash, size));
+    }
+
+    private static void setFileRow(final PreparedStatement ps, final String hash, final long size) throws SQLException {
+        ps.setString(1, hash);
+        ps.setLong(2, size);
+        ps.setNull(3, Types.BINARY);
+    }
+
+    private void writeFile(final String hash, final InputStream data) {
+        try {
+            fileStore.write(hash, data);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Failed to write the content of media " + hash, ex);
+        }
+    }
+
+    private void deleteFile(final String hash) {
+        try {
+            fileStore.delete(hash);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Failed to delete the content of media " + hash, ex);
+        }
+    }
+
+    /**
+     * Reads the content of a media into an array of its stored size. The MySQL and MariaDB drivers stream the content
+     * from the row they already hold, whereas getBytes copies it first; the PostgreSQL driver decodes the content into
+     * an array in any case, which is then used as is.
+     */
+    private byte[] readData(final ResultSet rs, final long size) throws SQLException {
+        if (dialect == SqlDialect.POSTGRESQL || size < 0 || size > Integer.MAX_VALUE) {
+            return rs.getBytes("data");
+        }
+        try (InputStream in = rs.getBinaryStream("data")) {
+            if (in == null) {
+                return null;
+            }
+            byte[] data = new byte[(int) size];
+            int length = 0;
+            int read;
+            while (true) {
+                if (length == data.length) {
+                    // the stored size is smaller than the content, which is then read entirely anyway
+                    final int next = in.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    data = Arrays.copyOf(data, Math.max(BUFFER_SIZE, data.length * 2));
+                    data[length++] = (byte) next;
+                    continue;
+                }
+                if ((read = in.read(data, length, data.length - length)) < 0) {
+                    break;
+                }
+                length += read;
+            }
+            return length == data.length ? data : Arrays.copyOf(data, length);
+        } catch (final IOException ex) {
+            throw new SQLException("Failed to read media", ex);
+        }
+    }
+
+    private String getInsertBlobSql() {
+        // the content may already be stored for another media, its row is then left as is but locked, as a delete
+        // of the last media having it would do, so that the content can't be deleted before the media is committed
+        return "insert into media_blobs ( hash, " + dialect.escapeReservedWord("size") + ", data ) values ( ?, ?, ? )"
+                + dialect.buildUpsertClause(Collections.singletonList("hash"), Collections.singletonList("hash"));
+    }
+
     @Override
     public Optional<Media> findByHash(String hash, String mediaType) {
         LOGGER.debug("JdbcMediaRepository.findMediaBy({},{})", hash, mediaType);
@@ -95,27 +538,53 @@ public class JdbcMediaRepository implements MediaRepository {
         return this.findByHash(hash, null, mediaType);
     }
 
+    /**
+     * Loads the whole content of the media in memory, once; {@link #writeData(String, String, String, OutputStream)}
+     * copies it to a stream instead.
+     */
     @Override
     public Optional<Media> findByHash(String hash, String api, String mediaType) {
         LOGGER.debug("JdbcMediaRepository.findMediaBy({},{},{})", hash, mediaType, api);
 
+        if (fileStore != null) {
+            final Optional<Media> media = findMetadata(hash, api, mediaType);
+            if (media.isPresent()) {
+                try {
+                    media.get().setData(fileStore.read(hash));
+                } catch (final IOException ex) {
+                    LOGGER.error("Failed to read media", ex);
+                    throw new IllegalStateException("Failed to read media", ex);
+                }
+            }
+            return media;
+        }
+
         String sql = null;
         Object[] param = null;
         if (api != null) {
-            sql = "select * from "+ escapeReservedWord("media")+" where hash = ? and type = ? and api = ?";
+            sql = selectSql() + " and m.api = ?";
             param = new Object[]{hash, mediaType, api};
         } else {
-            sql = "select * from media where hash = ? and type = ?";
+            sql = selectSql();
             param = new Object[]{hash, mediaType};
         }
 
         List<Media> mediaList = jdbcTemplate.query(sql,
-                ORM.getRowMapper(),
+                rowMapper,
                 param);
 
         return mediaList.stream().findFirst();
     }
 
+    private String selectSql() {
+        return "select m.*, b.data from " + dialect.escapeReservedWord("media") + " m"
+                + " join media_blobs b on b.hash = m.hash where m.hash = ? and m.type = ?";
+    }
+
+    private String selectMetadataSql() {
+        return "select m.* from " + dialect.escapeReservedWord("media") + " m where m.hash = ? and m.type = ?";
+    }
+
 //    @Override
 //    public void delete(String hash, String mediaType) {
 //        this.deleteApiFor(hash, null, mediaType);
@@ -128,7 +597,7 @@ public class JdbcMediaRepository implements MediaRepository {
 //        String sql = null;
 //        Object[] param = null;
 //        if (api != null) {
-//            sql = "delete from "+ escapeReservedWord("media")+" where hash = ? and type = ? and api = ?";
+//            sql = "delete from "+ dialect.escapeReservedWord("media")+" where hash = ? and type = ? and api = ?";
 //            param = new Object[]{hash, mediaType, api};
 //        } else {
 //            sql = "delete from media where hash = ? and type = ?";
@@ -141,7 +610,7 @@ public class JdbcMediaRepository implements MediaRepository {
 
 //    @Override
 //    public long totalSizeFor(String api, String mediaType) {
-//        String sql = "select sum(size) from "+ escapeReservedWord("media")+" where type = ? and api = ?";
+//        String sql = "select sum(size) from "+ dialect.escapeReservedWord("media")+" where type = ? and api = ?";
 //        Object[] param = new Object[]{mediaType, api};
 //        return (Long) jdbcTemplate.queryForObject(sql, Long.class, param);
 //    }
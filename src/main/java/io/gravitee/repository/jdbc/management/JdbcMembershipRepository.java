@@ -16,6 +16,7 @@
 package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
 import io.gravitee.repository.management.api.MembershipRepository;
 import io.gravitee.repository.management.model.Membership;
@@ -24,11 +25,13 @@ import io.gravitee.repository.management.model.RoleScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -38,6 +41,9 @@ import java.util.*;
 import static io.gravitee.repository.jdbc.management.JdbcHelper.AND_CLAUSE;
 import static io.gravitee.repository.jdbc.management.JdbcHelper.WHERE_CLAUSE;
 import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
 
 /**
  *
@@ -48,11 +54,58 @@ public class JdbcMembershipRepository implements MembershipRepository {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcMembershipRepository.class);
 
+    private static final int DEFAULT_CACHE_MAX_USERS = 10000;
+    private static final long DEFAULT_CACHE_TIME_TO_LIVE = 5000;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private SqlDialect dialect;
+
+    @Autowired
+    private JdbcChunkedInQuery chunkedInQuery;
+
+    // immutable memberships of the users, by reference type
+    private JdbcCache<String, Map<MembershipReferenceType, List<CachedMembership>>> membershipsByUser;
+
+    /**
+     * Reference and roles of a membership of a cached user. Memberships are only built from it when they are read.
+     */
+    private static final class CachedMembership {
+
+        private final String referenceId;
+        private final Map<Integer, String> roles;
+        private final Date createdAt;
+        private final Date updatedAt;
+
+        CachedMembership(final Membership membership) {
+            this.referenceId = membership.getReferenceId();
+            this.roles = unmodifiableMap(new HashMap<>(membership.getRoles()));
+            this.createdAt = membership.getCreatedAt();
+            this.updatedAt = membership.getUpdatedAt();
+        }
+
+        Membership toMembership(final String userId, final MembershipReferenceType referenceType) {
+            final Membership membership = new Membership();
+            membership.setUserId(userId);
+            membership.setReferenceType(referenceType);
+            membership.setReferenceId(referenceId);
+            membership.setRoles(new HashMap<>(roles));
+            membership.setCreatedAt(createdAt == null ? null : new Date(createdAt.getTime()));
+            membership.setUpdatedAt(updatedAt == null ? null : new Date(updatedAt.getTime()));
+            return membership;
+        }
+    }
+
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(Membership.class, "memberships")
-            .updateSql("update memberships set "
+            .updateSql(dialect -> "update memberships set "
                     + " user_id = ?"
                     + " , reference_type = ?"
                     + " , reference_id = ?"
@@ -70,13 +123,25 @@ public class JdbcMembershipRepository implements MembershipRepository {
             .addColumn("updated_at", Types.TIMESTAMP, Date.class)
             .build();
 
+    private static final JdbcChildTableSynchronizer<Integer, String> ROLES = JdbcChildTableSynchronizer.forMap("membership_roles"
+            , "role_scope", Integer.class, "role_name", String.class, "user_id", "reference_id", "reference_type");
+
+    private static final String SELECT_MEMBERSHIPS = "select m.user_id, m.reference_type, m.reference_id, m.created_at, m.updated_at"
+            + " , mr.role_scope, mr.role_name "
+            + " from memberships m "
+            + " left join membership_roles mr on mr.user_id = m.user_id and mr.reference_type = m.reference_type and mr.reference_id = m.reference_id";
+
     @Override
     public Membership create(final Membership membership) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.create({})", membership);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(membership));
-            storeMembershipRoles(membership, false);
-            return findById(membership.getUserId(), membership.getReferenceType(), membership.getReferenceId()).orElse(null);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, membership));
+                storeMembershipRoles(membership, false);
+                return null;
+            });
+            evictUser(membership.getUserId());
+            return toPersisted(membership);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create membership", ex);
             throw new TechnicalException("Failed to create membership", ex);
@@ -90,14 +155,20 @@ public class JdbcMembershipRepository implements MembershipRepository {
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(membership
-                    , membership.getUserId()
-                    , membership.getReferenceType().name()
-                    , membership.getReferenceId()
-            ));
-            storeMembershipRoles(membership, true);
-            return findById(membership.getUserId(), membership.getReferenceType(), membership.getReferenceId()).orElseThrow(() ->
-                    new IllegalStateException(format("No membership found with id [%s, %s, %s]", membership.getUserId(), membership.getReferenceType(), membership.getReferenceId())));
+            transactionTemplate.execute(status -> {
+                int rows = jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, membership
+                        , membership.getUserId()
+                        , membership.getReferenceType().name()
+                        , membership.getReferenceId()
+                ));
+                if (rows == 0) {
+                    throw new IllegalStateException(format("No membership found with id [%s, %s, %s]", membership.getUserId(), membership.getReferenceType(), membership.getReferenceId()));
+                }
+                storeMembershipRoles(membership, true);
+                return null;
+            });
+            evictUser(membership.getUserId());
+            return toPersisted(membership);
         } catch (final IllegalStateException ex) {
             throw ex;
         } catch (final Exception ex) {
@@ -106,47 +177,78 @@ public class JdbcMembershipRepository implements MembershipRepository {
         }
     }
 
-    private void addRoles(Membership parent) {
-        Map<Integer, String> roles = getRoles(parent.getUserId(), parent.getReferenceId(), parent.getReferenceType());
-        parent.setRoles(roles);
+    /**
+     * The memberships of a user are cached for <code>management.jdbc.cache.membership.timeToLive</code> ms, 5 seconds
+     * by default, and 0 disables the cache. Writes evict the cache of the local node only: this is a trade-off
+     * between security and load, as a role revoked on another node is still granted here for up to that time.
+     */
+    @PostConstruct
+    void initCache() {
+        membershipsByUser = new JdbcCache<>("memberships"
+                , environment.getProperty("management.jdbc.cache.membership.maxUsers", Integer.class, DEFAULT_CACHE_MAX_USERS)
+                , environment.getProperty("management.jdbc.cache.membership.timeToLive", Long.class, DEFAULT_CACHE_TIME_TO_LIVE));
+    }
+
+    private void evictUser(final String userId) {
+        membershipsByUser.evict(userId);
+    }
+
+    private Map<MembershipReferenceType, List<CachedMembership>> getUserMemberships(final String userId) {
+        return membershipsByUser.get(userId, user -> {
+            final List<Object> args = new ArrayList<>();
+            final StringBuilder query = new StringBuilder(SELECT_MEMBERSHIPS);
+            addCondition(true, query, "m.user_id", user, args);
+            final Map<MembershipReferenceType, List<CachedMembership>> memberships = new EnumMap<>(MembershipReferenceType.class);
+            for (final Membership membership : query(query.toString(), args)) {
+                memberships.computeIfAbsent(membership.getReferenceType(), type -> new ArrayList<>())
+                        .add(new CachedMembership(membership));
+            }
+            for (final Map.Entry<MembershipReferenceType, List<CachedMembership>> entry : memberships.entrySet()) {
+                entry.setValue(unmodifiableList(entry.getValue()));
+            }
+            return unmodifiableMap(memberships);
+        });
     }
 
-    private Map<Integer, String> getRoles(String userId, String referenceId, MembershipReferenceType referenceType) {
-        Map<Integer, String> roles = new HashMap<>();
-        jdbcTemplate.query("select role_scope, role_name from membership_roles where user_id = ? and reference_id = ? and reference_type = ?"
-                , new RowCallbackHandler() {
-                    @Override
-                    public void processRow(ResultSet rs) throws SQLException {
-                        roles.put(rs.getInt(1), rs.getString(2));
-                    }
-                }, userId, referenceId, referenceType.name());
-        return roles;
+    private Membership toPersisted(final Membership membership) {
+        final Membership persisted = (Membership) ORM.copy(membership);
+        persisted.setRoles(membership.getRoles() == null ? new HashMap<>() : new HashMap<>(membership.getRoles()));
+        return persisted;
+    }
+
+    /**
+     * Collates the rows of a memberships left join membership_roles query, so that memberships and all their roles
+     * are loaded with a single statement.
+     */
+    private static class MembershipCollator implements RowCallbackHandler {
+
+        private final Map<List<String>, Membership> memberships = new LinkedHashMap<>();
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            final List<String> id = Arrays.asList(rs.getString("user_id"), rs.getString("reference_type"), rs.getString("reference_id"));
+            Membership membership = memberships.get(id);
+            if (membership == null) {
+                membership = (Membership) ORM.getRowMapper().mapRow(rs, memberships.size() + 1);
+                membership.setRoles(new HashMap<>());
+                memberships.put(id, membership);
+            }
+            final int roleScope = rs.getInt("role_scope");
+            if (!rs.wasNull()) {
+                membership.getRoles().put(roleScope, rs.getString("role_name"));
+            }
+        }
+
+        Collection<Membership> getMemberships() {
+            return memberships.values();
+        }
     }
 
     private void storeMembershipRoles(Membership parent, boolean deleteFirst) {
         if (deleteFirst) {
-            jdbcTemplate.update("delete from membership_roles where user_id = ? and reference_id = ? and reference_type = ?"
-                    , parent.getUserId(), parent.getReferenceId(), parent.getReferenceType().name()
-            );
-        }
-        if (parent.getRoles() != null) {
-            List<Integer> scopes = new ArrayList<>(parent.getRoles().keySet());
-            jdbcTemplate.batchUpdate("insert into membership_roles ( user_id, reference_id, reference_type, role_scope, role_name ) values ( ?, ?, ?, ?, ? )"
-                    , new BatchPreparedStatementSetter() {
-                        @Override
-                        public void setValues(PreparedStatement ps, int i) throws SQLException {
-                            ps.setString(1, parent.getUserId());
-                            ps.setString(2, parent.getReferenceId());
-                            ps.setString(3, parent.getReferenceType().name());
-                            ps.setInt(4, scopes.get(i));
-                            ps.setString(5, parent.getRoles().get(scopes.get(i)));
-                        }
-
-                        @Override
-                        public int getBatchSize() {
-                            return scopes.size();
-                        }
-                    });
+            ROLES.synchronize(jdbcTemplate, parent.getRoles(), parent.getUserId(), parent.getReferenceId(), parent.getReferenceType().name());
+        } else {
+            ROLES.insert(jdbcTemplate, parent.getRoles(), parent.getUserId(), parent.getReferenceId(), parent.getReferenceType().name());
         }
     }
 
@@ -154,14 +256,17 @@ public class JdbcMembershipRepository implements MembershipRepository {
     public void delete(Membership membership) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.delete({})", membership);
         try {
-            jdbcTemplate.update("delete from memberships where user_id = ? and reference_type = ? and reference_id = ? "
-                    , membership.getUserId()
-                    , membership.getReferenceType().name()
-                    , membership.getReferenceId()
-            );
-            jdbcTemplate.update("delete from membership_roles where user_id = ? and reference_id = ? and reference_type = ?"
-                    , membership.getUserId(), membership.getReferenceId(), membership.getReferenceType().name()
-            );
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update("delete from memberships where user_id = ? and reference_type = ? and reference_id = ? "
+                        , membership.getUserId()
+                        , membership.getReferenceType().name()
+                        , membership.getReferenceId()
+                );
+                return jdbcTemplate.update("delete from membership_roles where user_id = ? and reference_id = ? and reference_type = ?"
+                        , membership.getUserId(), membership.getReferenceId(), membership.getReferenceType().name()
+                );
+            });
+            evictUser(membership.getUserId());
         } catch (final Exception ex) {
             LOGGER.error("Failed to delete membership", ex);
             throw new TechnicalException("Failed to delete membership", ex);
@@ -172,18 +277,9 @@ public class JdbcMembershipRepository implements MembershipRepository {
     public Optional<Membership> findById(String userId, MembershipReferenceType referenceType, String referenceId) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.findById({}, {}, {})", userId, referenceType, referenceId);
         try {
-            final List<Membership> memberships = jdbcTemplate.query("select"
-                            + " user_id, reference_type, reference_id, created_at, updated_at "
-                            + " from memberships where user_id = ? and reference_type = ? and reference_id = ?"
-                    , ORM.getRowMapper()
-                    , userId
-                    , referenceType.name()
-                    , referenceId
-            );
-            if (!memberships.isEmpty()) {
-                addRoles(memberships.get(0));
-            }
-            return memberships.stream().findFirst();
+            // the whole key is required, as for any id
+            return query(SELECT_MEMBERSHIPS + " where m.user_id = ? and m.reference_type = ? and m.reference_id = ?"
+                    , Arrays.<Object>asList(userId, referenceType.name(), referenceId)).stream().findFirst();
         } catch (final Exception ex) {
             LOGGER.error("Failed to find membership by id", ex);
             throw new TechnicalException("Failed to find membership by id", ex);
@@ -193,117 +289,61 @@ public class JdbcMembershipRepository implements MembershipRepository {
     @Override
     public Set<Membership> findByIds(String userId, MembershipReferenceType referenceType, Set<String> referenceIds) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.findByIds({}, {}, {})", userId, referenceType, referenceIds);
-        final StringBuilder query = new StringBuilder("select user_id, reference_type, reference_id, created_at, updated_at "
-                + " from memberships where user_id = ? and reference_type = ?");
-        ORM.buildInCondition(false, query, "reference_id", referenceIds);
         try {
-            final List<Membership> memberships = jdbcTemplate.query(query.toString()
-                    , (PreparedStatement ps) -> {
-                        ps.setString(1, userId);
-                        ps.setString(2, referenceType.name());
-                        ORM.setArguments(ps, referenceIds, 3);
-                    }
-                    , ORM.getRowMapper()
-            );
-            for (Membership membership : memberships) {
-                addRoles(membership);
+            final StringBuilder query = new StringBuilder(SELECT_MEMBERSHIPS + " where m.user_id = ? and m.reference_type = ?");
+            final List<Object> args = new ArrayList<>(Arrays.asList(userId, referenceType.name()));
+            ORM.buildInCondition(dialect, false, query, "m.reference_id", referenceIds);
+            if (referenceIds != null && !referenceIds.isEmpty()) {
+                args.addAll(dialect.getInArguments(referenceIds));
             }
-            return new HashSet<>(memberships);
+            return new HashSet<>(query(query.toString(), args));
         } catch (final Exception ex) {
             LOGGER.error("Failed to find membership by ids", ex);
             throw new TechnicalException("Failed to find membership by ids", ex);
         }
     }
 
-
     @Override
     public Set<Membership> findByReferenceAndRole(MembershipReferenceType referenceType, String referenceId, RoleScope roleScope, String roleName) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.findByReferenceAndRole({}, {}, {}, {})", referenceType, referenceId, roleScope, roleName);
-        final StringBuilder query = new StringBuilder("select m.user_id, m.reference_type, m.reference_id, m.created_at, m.updated_at "
-                + " from memberships m"
-                + " left join membership_roles mr on mr.user_id = m.user_id" +
-                " and mr.reference_type = m.reference_type and mr.reference_id = m.reference_id");
-        initializeWhereClause(referenceId, referenceType, roleScope, roleName, query);
-        return queryAndAddRoles(referenceId, referenceType, roleScope, roleName, query.toString());
+        final StringBuilder query = new StringBuilder(SELECT_MEMBERSHIPS);
+        final List<Object> args = new ArrayList<>();
+        boolean first = addCondition(true, query, "m.reference_id", referenceId, args);
+        first = addCondition(first, query, "m.reference_type", referenceType, args);
+        addRoleCondition(first, query, roleScope, roleName, args);
+        return new HashSet<>(query(query.toString(), args));
     }
 
     @Override
     public Set<Membership> findByRole(RoleScope roleScope, String roleName) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.findByRole({}, {})", roleScope, roleName);
-        final StringBuilder query = new StringBuilder("select m.user_id, m.reference_type, m.reference_id, m.created_at, m.updated_at "
-                + " from memberships m"
-                + " left join membership_roles mr on mr.user_id = m.user_id" +
-                " and mr.reference_type = m.reference_type and mr.reference_id = m.reference_id");
-        initializeWhereClause(null, null, roleScope, roleName, query);
-        return queryAndAddRoles(null, null, roleScope, roleName, query.toString());
-    }
-
-    private void initializeWhereClause(final String referenceId, final MembershipReferenceType referenceType,
-                                       final RoleScope roleScope, final String roleName, final StringBuilder query) {
-        boolean first = true;
-        if (referenceId != null) {
-            query.append(WHERE_CLAUSE);
-            first = false;
-            query.append(" m.reference_id= ? ");
-        }
-        if (referenceType != null) {
-            query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
-            first = false;
-            query.append(" m.reference_type= ? ");
-        }
-        if (roleScope != null) {
-            query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
-            first = false;
-            query.append(" role_scope= ? ");
-        }
-        if (roleName != null) {
-            query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
-            query.append(" role_name= ? ");
-        }
+        final StringBuilder query = new StringBuilder(SELECT_MEMBERSHIPS);
+        final List<Object> args = new ArrayList<>();
+        addRoleCondition(true, query, roleScope, roleName, args);
+        return new HashSet<>(query(query.toString(), args));
     }
 
     @Override
     public Set<Membership> findByReferencesAndRole(MembershipReferenceType referenceType, List<String> referenceIds, RoleScope roleScope, String roleName) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.findByReferencesAndRole({}, {}, {}, {})", referenceType, referenceIds, roleScope, roleName);
         try {
-            StringBuilder query = new StringBuilder("select m.user_id, m.reference_type, m.reference_id, m.created_at, m.updated_at "
-                    + " from memberships m "
-                    + " left join membership_roles mr on mr.user_id = m.user_id and mr.reference_type = m.reference_type and mr.reference_id = m.reference_id");
-            boolean first = true;
-            if (referenceType != null) {
-                query.append(WHERE_CLAUSE);
-                first = false;
-                query.append(" m.reference_type= ? ");
-            }
-            ORM.buildInCondition(first, query, "m.reference_id", referenceIds);
-            if (roleScope != null) {
-                query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
-                first = false;
-                query.append(" role_scope= ? ");
-            }
-            if (roleName != null) {
-                query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
-                query.append(" role_name= ? ");
-            }
-            final List<Membership> items = jdbcTemplate.query(query.toString()
-                    , (PreparedStatement ps) -> {
-                        int idx = 1;
-                        if (referenceType != null) {
-                            ps.setString(idx++, referenceType.name());
-                        }
-                        idx = ORM.setArguments(ps, referenceIds, idx);
-                        if (roleScope != null) {
-                            ps.setInt(idx++, roleScope.getId());
-                        }
-                        if (roleName != null) {
-                            ps.setString(idx++, roleName);
-                        }
-                    }, ORM.getRowMapper()
-            );
-            for (Membership membership : items) {
-                addRoles(membership);
+            final JdbcChunkedInQuery.Query<Membership> byReferences = (condition, conditionArgs) -> {
+                final StringBuilder query = new StringBuilder(SELECT_MEMBERSHIPS);
+                final List<Object> args = new ArrayList<>();
+                boolean first = addCondition(true, query, "m.reference_type", referenceType, args);
+                if (condition != null) {
+                    query.append(first ? WHERE_CLAUSE : AND_CLAUSE).append(condition);
+                    args.addAll(conditionArgs);
+                    first = false;
+                }
+                addRoleCondition(first, query, roleScope, roleName, args);
+                return new ArrayList<>(query(query.toString(), args));
+            };
+            if (referenceIds == null || referenceIds.isEmpty()) {
+                // no reference ids means any reference, as when the IN condition was left out of the query
+                return new HashSet<>(byReferences.run(null, Collections.emptyList()));
             }
-            return new HashSet<>(items);
+            return new HashSet<>(chunkedInQuery.query(referenceIds, "m.reference_id", byReferences));
         } catch (final Exception ex) {
             LOGGER.error("Failed to find membership by references and membership role", ex);
             throw new TechnicalException("Failed to find membership by references and membership role", ex);
@@ -314,70 +354,68 @@ public class JdbcMembershipRepository implements MembershipRepository {
     public Set<Membership> findByUserAndReferenceTypeAndRole(String userId, MembershipReferenceType referenceType, RoleScope roleScope, String roleName) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.findByUserAndReferenceTypeAndRole({}, {}, {}, {})", userId, referenceType, roleScope, roleName);
         try {
-            final StringBuilder query = new StringBuilder("select "
-                    + " m.user_id, m.reference_type, m.reference_id, m.created_at, m.updated_at "
-                    + " from memberships m "
-                    + " left join membership_roles mr on mr.user_id = m.user_id and mr.reference_type = m.reference_type and mr.reference_id = m.reference_id");
-            boolean first = true;
-            if (userId != null) {
-                query.append(WHERE_CLAUSE);
-                query.append(" m.user_id = ? ");
-                first = false;
-            }
-            if (referenceType != null) {
-                query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
-                query.append(" m.reference_type = ? ");
-                first = false;
-            }
-            if (roleScope != null) {
-                query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
-                query.append(" role_scope = ? ");
-                first = false;
-            }
-            if (roleName != null) {
-                query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
-                query.append(" role_name = ? ");
-            }
-            return queryAndAddRoles(userId, referenceType, roleScope, roleName, query.toString());
+            final StringBuilder query = new StringBuilder(SELECT_MEMBERSHIPS);
+            final List<Object> args = new ArrayList<>();
+            boolean first = addCondition(true, query, "m.user_id", userId, args);
+            first = addCondition(first, query, "m.reference_type", referenceType, args);
+            addRoleCondition(first, query, roleScope, roleName, args);
+            return new HashSet<>(query(query.toString(), args));
         } catch (final Exception ex) {
             LOGGER.error("Failed to find membership by references and membership type", ex);
             throw new TechnicalException("Failed to find membership by references and membership type", ex);
         }
     }
 
-    private Set<Membership> queryAndAddRoles(final String referenceId, final MembershipReferenceType referenceType,
-                                             final RoleScope roleScope, final String roleName, final String stringQuery) {
-        final List<Membership> memberships = jdbcTemplate.query(stringQuery
-                , (PreparedStatement ps) -> {
-                    int idx = 1;
-                    if (referenceId != null) {
-                        ps.setString(idx++, referenceId);
-                    }
-                    if (referenceType != null) {
-                        ps.setString(idx++, referenceType.name());
-                    }
-                    if (roleScope != null) {
-                        ps.setInt(idx++, roleScope.getId());
-                    }
-                    if (roleName != null) {
-                        ps.setString(idx++, roleName);
-                    }
-                }, ORM.getRowMapper()
-        );
-        for (final Membership membership : memberships) {
-            addRoles(membership);
+    private static boolean addCondition(final boolean first, final StringBuilder query, final String column,
+                                        final Object value, final List<Object> args) {
+        if (value == null) {
+            return first;
         }
-        return new HashSet<>(memberships);
+        query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
+        query.append(column).append(" = ? ");
+        args.add(value);
+        return false;
+    }
+
+    /**
+     * Filters memberships having the given role without restricting the joined roles, so that matching memberships
+     * are still returned with all their roles.
+     */
+    private static boolean addRoleCondition(final boolean first, final StringBuilder query, final RoleScope roleScope,
+                                            final String roleName, final List<Object> args) {
+        if (roleScope == null && roleName == null) {
+            return first;
+        }
+        query.append(first ? WHERE_CLAUSE : AND_CLAUSE);
+        query.append(" exists ( select 1 from membership_roles fr where fr.user_id = m.user_id"
+                + " and fr.reference_type = m.reference_type and fr.reference_id = m.reference_id");
+        if (roleScope != null) {
+            query.append(" and fr.role_scope = ?");
+            args.add(roleScope.getId());
+        }
+        if (roleName != null) {
+            query.append(" and fr.role_name = ?");
+            args.add(roleName);
+        }
+        query.append(" ) ");
+        return false;
+    }
+
+    private Collection<Membership> query(final String query, final List<Object> args) {
+        final MembershipCollator collator = new MembershipCollator();
+        jdbcTemplate.query(query, (PreparedStatement ps) -> ORM.setArguments(ps, args, 1), collator);
+        return collator.getMemberships();
     }
 
     @Override
     public Set<Membership> findByUserAndReferenceType(final String userId, final MembershipReferenceType referenceType) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.findByUserAndReferenceType({}, {}, {})", userId, referenceType);
         try {
-            final String query = "select "
-                    + " user_id, reference_type, reference_id, created_at, updated_at "
-                    + " from memberships where user_id = ? and reference_type = ? ";
-            return queryAndAddRoles(userId, referenceType, null, null, query);
+            final Set<Membership> memberships = new HashSet<>();
+            for (final CachedMembership membership : getUserMemberships(userId).getOrDefault(referenceType, emptyList())) {
+                memberships.add(membership.toMembership(userId, referenceType));
+            }
+            return memberships;
         } catch (final Exception ex) {
             LOGGER.error("Failed to find membership by user and membership type", ex);
             throw new TechnicalException("Failed to find membership by user and membership type", ex);
@@ -388,10 +426,13 @@ public class JdbcMembershipRepository implements MembershipRepository {
     public Set<Membership> findByUser(String userId) throws TechnicalException {
         LOGGER.debug("JdbcMembershipRepository.findByUser({})", userId);
         try {
-            final String query = "select "
-                    + " user_id, reference_type, reference_id, created_at, updated_at "
-                    + " from memberships where user_id = ? ";
-            return queryAndAddRoles(userId, null, null, null, query);
+            final Set<Membership> memberships = new HashSet<>();
+            for (final Map.Entry<MembershipReferenceType, List<CachedMembership>> entry : getUserMemberships(userId).entrySet()) {
+                for (final CachedMembership membership : entry.getValue()) {
+                    memberships.add(membership.toMembership(userId, entry.getKey()));
+                }
+            }
+            return memberships;
         } catch (final Exception ex) {
             LOGGER.error("Failed to find membership by user ", ex);
             throw new TechnicalException("Failed to find by user ", ex);
@@ -16,6 +16,7 @@
 package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
 import io.gravitee.repository.management.api.MetadataRepository;
 import io.gravitee.repository.management.model.Metadata;
@@ -32,7 +33,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static java.lang.String.format;
 
 /**
@@ -46,11 +46,14 @@ public class JdbcMetadataRepository implements MetadataRepository {
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlDialect dialect;
     
     private static final JdbcObjectMapper ORM = 
             JdbcObjectMapper.builder(Metadata.class, "metadata", "key")
-                    .updateSql("update metadata set "
-                            + escapeReservedWord("key") + " = ?"
+                    .updateSql(dialect -> "update metadata set "
+                            + dialect.escapeReservedWord("key") + " = ?"
                             + " , reference_type = ?"
                             + " , reference_id = ?"
                             + " , name = ?"
@@ -59,7 +62,7 @@ public class JdbcMetadataRepository implements MetadataRepository {
                             + " , created_at = ? "
                             + " , updated_at = ? "
                             + " where "
-                            + escapeReservedWord("key") + " = ? "
+                            + dialect.escapeReservedWord("key") + " = ? "
                             + "and reference_type = ? "
                             + "and reference_id = ? "
                     )
@@ -77,7 +80,7 @@ public class JdbcMetadataRepository implements MetadataRepository {
     public Metadata create(final Metadata metadata) throws TechnicalException {
         LOGGER.debug("JdbcMetadataRepository.create({})", metadata);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(metadata));
+            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, metadata));
             return findById(metadata.getKey(), metadata.getReferenceId(), metadata.getReferenceType()).orElse(null);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create metadata", ex);
@@ -92,7 +95,7 @@ public class JdbcMetadataRepository implements MetadataRepository {
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(metadata
+            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, metadata
                     , metadata.getKey()
                     , metadata.getReferenceType().name()
                     , metadata.getReferenceId()
@@ -111,7 +114,7 @@ public class JdbcMetadataRepository implements MetadataRepository {
     public void delete(String key, String referenceId, MetadataReferenceType referenceType) throws TechnicalException {
         LOGGER.debug("JdbcMetadataRepository.delete({}, {}, {})", key, referenceId, referenceType);
         try {
-            jdbcTemplate.update("delete from metadata where " + escapeReservedWord("key") + " = ? and reference_type = ? and reference_id = ? "
+            jdbcTemplate.update("delete from metadata where " + dialect.escapeReservedWord("key") + " = ? and reference_type = ? and reference_id = ? "
                     , key
                     , referenceType.name()
                     , referenceId
@@ -126,7 +129,7 @@ public class JdbcMetadataRepository implements MetadataRepository {
     public Optional<Metadata> findById(String key, String referenceId, MetadataReferenceType referenceType) throws TechnicalException {
         LOGGER.debug("JdbcMetadataRepository.findById({}, {}, {})", key, referenceId, referenceType);
         try {
-            final List<Metadata> items = jdbcTemplate.query("select * from metadata where " + escapeReservedWord("key") + " = ? and reference_type = ? and reference_id = ?"
+            final List<Metadata> items = jdbcTemplate.query("select * from metadata where " + dialect.escapeReservedWord("key") + " = ? and reference_type = ? and reference_id = ?"
                     , ORM.getRowMapper()
                     , key
                     , referenceType.name()
@@ -143,7 +146,7 @@ public class JdbcMetadataRepository implements MetadataRepository {
     public List<Metadata> findByKeyAndReferenceType(String key, MetadataReferenceType referenceType) throws TechnicalException {
         LOGGER.debug("JdbcMetadataRepository.findByKeyAndReferenceType({}, {})", key, referenceType);
         try {
-            return jdbcTemplate.query("select * from metadata where " + escapeReservedWord("key") + " = ? and reference_type = ?"
+            return jdbcTemplate.query("select * from metadata where " + dialect.escapeReservedWord("key") + " = ? and reference_type = ?"
                     , ORM.getRowMapper()
                     , key
                     , referenceType.name()
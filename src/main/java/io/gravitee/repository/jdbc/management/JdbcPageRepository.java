@@ -31,11 +31,12 @@ import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import java.sql.*;
 import java.util.Date;
 import java.util.*;
+import java.util.function.Function;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static io.gravitee.repository.jdbc.orm.JdbcColumn.getDBName;
 import static java.lang.String.format;
 
@@ -49,7 +50,6 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcPageRepository.class);
 
-    private static final String ESCAPED_ORDER_COLUMN_NAME = escapeReservedWord("order");
 
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(Page.class, "pages", "id")
             .addColumn("id", Types.NVARCHAR, String.class)
@@ -66,25 +66,10 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
             .addColumn("parent_id", Types.NVARCHAR, String.class)
             .build();
 
-    private static final JdbcHelper.ChildAdder<Page> CHILD_ADDER = (Page parent, ResultSet rs) -> {
-        Map<String, String> configuration = parent.getConfiguration();
-        if (configuration == null) {
-            configuration = new HashMap<>();
-            parent.setConfiguration(configuration);
-        }
-        if (rs.getString("pc_k") != null) {
-            configuration.put(rs.getString("pc_k"), rs.getString("pc_v"));
-        }
-
-        Map<String, String> metadata = parent.getMetadata();
-        if (metadata == null) {
-            metadata = new HashMap<>();
-            parent.setMetadata(metadata);
-        }
-        if (rs.getString("pm_k") != null) {
-            metadata.put(rs.getString("pm_k"), rs.getString("pm_v"));
-        }
-    };
+    private static final JdbcChildTableSynchronizer<String, String> CONFIGURATION =
+            JdbcChildTableSynchronizer.forMap("page_configuration", "k", String.class, "v", String.class, "page_id");
+    private static final JdbcChildTableSynchronizer<String, String> METADATA =
+            JdbcChildTableSynchronizer.forMap("page_metadata", "k", String.class, "v", String.class, "page_id");
 
 
     private class Rm implements RowMapper<Page> {
@@ -100,7 +85,6 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
                 pageSource.setConfiguration(sourceConfiguration);
                 page.setSource(pageSource);
             }
-            addExcludedGroups(page);
             return page;
         }
     }
@@ -135,7 +119,7 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
         }
     }
 
-    private static String buildInsertStatement() {
+    private String buildInsertStatement() {
         final StringBuilder builder = new StringBuilder("insert into pages (");
         boolean first = true;
         for (JdbcColumn column : (List<JdbcColumn>) ORM.getColumns()) {
@@ -143,7 +127,7 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
                 builder.append(", ");
             }
             first = false;
-            builder.append(escapeReservedWord(getDBName(column.name)));
+            builder.append(dialect.escapeReservedWord(getDBName(column.name)));
         }
         builder.append(", source_type");
         builder.append(", source_configuration");
@@ -162,9 +146,7 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
         return builder.toString();
     }
 
-    private static final String INSERT_SQL = buildInsertStatement();
-
-    private static String buildUpdateStatement() {
+    private String buildUpdateStatement() {
         StringBuilder builder = new StringBuilder();
         builder.append("update pages set ");
         boolean first = true;
@@ -173,7 +155,7 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
                 builder.append(", ");
             }
             first = false;
-            builder.append(escapeReservedWord(getDBName(column.name)));
+            builder.append(dialect.escapeReservedWord(getDBName(column.name)));
             builder.append(" = ?");
         }
         builder.append(", source_type = ?");
@@ -183,7 +165,29 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
         return builder.toString();
     }
 
-    private static final String UPDATE_SQL = buildUpdateStatement();
+    private String buildSelectColumnsWithoutContent() {
+        final StringJoiner columns = new StringJoiner(", ");
+        for (JdbcColumn column : (List<JdbcColumn>) ORM.getColumns()) {
+            if (!"content".equals(getDBName(column.name))) {
+                columns.add("p." + dialect.escapeReservedWord(getDBName(column.name)));
+            }
+        }
+        columns.add("p.source_type");
+        columns.add("p.source_configuration");
+        return columns.toString();
+    }
+
+    private String insertSql;
+    private String updateSql;
+    // the content of pages can be large, and isn't needed to list them
+    private String selectColumnsWithoutContent;
+
+    @PostConstruct
+    void initStatements() {
+        insertSql = buildInsertStatement();
+        updateSql = buildUpdateStatement();
+        selectColumnsWithoutContent = buildSelectColumnsWithoutContent();
+    }
 
     @Override
     protected JdbcObjectMapper getOrm() {
@@ -202,23 +206,26 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
 
     @Override
     protected PreparedStatementCreator buildUpdatePreparedStatementCreator(Page page) {
-        return new Psc(UPDATE_SQL, page, page.getId());
+        return new Psc(updateSql, page, page.getId());
     }
 
     @Override
     protected PreparedStatementCreator buildInsertPreparedStatementCreator(Page page) {
-        return new Psc(INSERT_SQL, page);
+        return new Psc(insertSql, page);
     }
 
-    private void addExcludedGroups(Page page) {
-        List<String> excludedGroups = getExcludedGroups(page.getId());
-        page.setExcludedGroups(excludedGroups);
-    }
-
-    private List<String> getExcludedGroups(String pageId) {
-        return jdbcTemplate.query("select excluded_group from page_excluded_groups where page_id = ?"
-                , (ResultSet rs, int rowNum) -> rs.getString(1)
-                , pageId);
+    private void addExcludedGroups(List<Page> pages) {
+        if (pages.isEmpty()) {
+            return;
+        }
+        final Map<String, Page> pagesById = new HashMap<>();
+        for (Page page : pages) {
+            page.setExcludedGroups(new ArrayList<>());
+            pagesById.put(page.getId(), page);
+        }
+        for (String[] row : queryChildRows("select page_id, excluded_group from page_excluded_groups", pagesById.keySet())) {
+            pagesById.get(row[0]).getExcludedGroups().add(row[1]);
+        }
     }
 
     private void storeExcludedGroups(Page page, boolean deleteFirst) {
@@ -245,67 +252,71 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
 
     private void storeConfiguration(Page page, boolean deleteFirst) {
         if (deleteFirst) {
-            jdbcTemplate.update("delete from page_configuration where page_id = ?", page.getId());
-        }
-        if (page.getConfiguration() != null && !page.getConfiguration().isEmpty()) {
-            List<Map.Entry<String, String>> entries = new ArrayList<>(page.getConfiguration().entrySet());
-            jdbcTemplate.batchUpdate("insert into page_configuration ( page_id, k, v ) values ( ?, ?, ? )"
-                    , new BatchPreparedStatementSetter() {
-                        @Override
-                        public void setValues(PreparedStatement ps, int i) throws SQLException {
-                            ps.setString(1, page.getId());
-                            ps.setString(2, entries.get(i).getKey());
-                            ps.setString(3, entries.get(i).getValue());
-                        }
-
-                        @Override
-                        public int getBatchSize() {
-                            return entries.size();
-                        }
-                    });
+            CONFIGURATION.synchronize(jdbcTemplate, page.getConfiguration(), page.getId());
+        } else {
+            CONFIGURATION.insert(jdbcTemplate, page.getConfiguration(), page.getId());
         }
     }
 
     private void storeMetadata(Page page, boolean deleteFirst) {
         if (deleteFirst) {
-            jdbcTemplate.update("delete from page_metadata where page_id = ?", page.getId());
+            METADATA.synchronize(jdbcTemplate, page.getMetadata(), page.getId());
+        } else {
+            METADATA.insert(jdbcTemplate, page.getMetadata(), page.getId());
         }
-        if (page.getMetadata() != null && !page.getMetadata().isEmpty()) {
-            List<Map.Entry<String, String>> entries = new ArrayList<>(page.getMetadata().entrySet());
-            jdbcTemplate.batchUpdate("insert into page_metadata ( page_id, k, v ) values ( ?, ?, ? )"
-                    , new BatchPreparedStatementSetter() {
-                        @Override
-                        public void setValues(PreparedStatement ps, int i) throws SQLException {
-                            ps.setString(1, page.getId());
-                            ps.setString(2, entries.get(i).getKey());
-                            ps.setString(3, entries.get(i).getValue());
-                        }
+    }
 
-                        @Override
-                        public int getBatchSize() {
-                            return entries.size();
-                        }
-                    });
+    /**
+     * Reads the configuration and metadata of the pages, one query per child table, instead of joining both to the
+     * pages, which would return the product of their numbers of entries.
+     */
+    private void addConfigurationAndMetadata(List<Page> pages) {
+        if (pages.isEmpty()) {
+            return;
+        }
+        final Map<String, Page> pagesById = new HashMap<>();
+        for (Page page : pages) {
+            page.setConfiguration(new HashMap<>());
+            page.setMetadata(new HashMap<>());
+            pagesById.put(page.getId(), page);
         }
+        addChildEntries("page_configuration", pagesById, Page::getConfiguration);
+        addChildEntries("page_metadata", pagesById, Page::getMetadata);
+    }
+
+    private void addChildEntries(String table, Map<String, Page> pagesById, Function<Page, Map<String, String>> entries) {
+        for (String[] row : queryChildRows("select page_id, k, v from " + table, pagesById.keySet())) {
+            entries.apply(pagesById.get(row[0])).put(row[1], row[2]);
+        }
+    }
+
+    /**
+     * Reads the rows of a child table for the given pages, each row as the array of the selected columns.
+     */
+    private List<String[]> queryChildRows(String select, Collection<String> pageIds) {
+        return chunkedInQuery.query(pageIds, "page_id", (condition, args) ->
+                jdbcTemplate.query(select + " where " + condition
+                        , (ResultSet rs, int rowNum) -> {
+                            final String[] row = new String[rs.getMetaData().getColumnCount()];
+                            for (int i = 0; i < row.length; i++) {
+                                row[i] = rs.getString(i + 1);
+                            }
+                            return row;
+                        }
+                        , args.toArray()));
     }
 
     @Override
     public Optional<Page> findById(String id) throws TechnicalException {
         LOGGER.debug("JdbcPageRepository.findById({})", id);
         try {
-            JdbcHelper.CollatingRowMapper<Page> rowMapper = new JdbcHelper.CollatingRowMapper<>(mapper, CHILD_ADDER, "id");
-            jdbcTemplate.query("select p.*, " +
-                            "pm.k as pm_k, pm.v as pm_v, " +
-                            "pc.k as pc_k, pc.v as pc_v " +
-                            "from pages p " +
-                            "left join page_configuration pc on p.id = pc.page_id " +
-                            "left join page_metadata pm on p.id = pc.page_id " +
-                            "where p.id = ?"
-                    , rowMapper
+            final List<Page> pages = jdbcTemplate.query("select p.* from pages p where p.id = ?"
+                    , mapper
                     , id
             );
-            Optional<Page> result = rowMapper.getRows().stream().findFirst();
-            result.ifPresent(this::addExcludedGroups);
+            addConfigurationAndMetadata(pages);
+            addExcludedGroups(pages);
+            Optional<Page> result = pages.stream().findFirst();
             LOGGER.debug("JdbcPageRepository.findById({}) = {}", id, result);
             return result;
         } catch (final Exception ex) {
@@ -317,19 +328,25 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
 
     @Override
     public void delete(String id) throws TechnicalException {
-        jdbcTemplate.update("delete from page_configuration where page_id = ?", id);
-        jdbcTemplate.update("delete from page_metadata where page_id = ?", id);
-        jdbcTemplate.update(ORM.getDeleteSql(), id);
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.update("delete from page_configuration where page_id = ?", id);
+            jdbcTemplate.update("delete from page_metadata where page_id = ?", id);
+            jdbcTemplate.update(ORM.getDeleteSql(dialect), id);
+            return null;
+        });
     }
 
     @Override
     public Page create(Page item) throws TechnicalException {
         LOGGER.debug("JdbcPageRepository.create({})", item);
         try {
-            jdbcTemplate.update(buildInsertPreparedStatementCreator(item));
-            storeExcludedGroups(item, false);
-            storeConfiguration(item, false);
-            storeMetadata(item, false);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(buildInsertPreparedStatementCreator(item));
+                storeExcludedGroups(item, false);
+                storeConfiguration(item, false);
+                storeMetadata(item, false);
+                return null;
+            });
             return findById(item.getId()).orElse(null);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create page", ex);
@@ -344,10 +361,13 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(buildUpdatePreparedStatementCreator(page));
-            storeExcludedGroups(page, true);
-            storeConfiguration(page, true);
-            storeMetadata(page, true);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(buildUpdatePreparedStatementCreator(page));
+                storeExcludedGroups(page, true);
+                storeConfiguration(page, true);
+                storeMetadata(page, true);
+                return null;
+            });
             return findById(page.getId()).orElseThrow(() ->
                     new IllegalStateException(format("No page found with id [%s]", page.getId())));
         } catch (final IllegalStateException ex) {
@@ -362,7 +382,7 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
     public Integer findMaxApiPageOrderByApiId(String apiId) throws TechnicalException {
         LOGGER.debug("JdbcPageRepository.findMaxApiPageOrderByApiId({})", apiId);
         try {
-            Integer result = jdbcTemplate.queryForObject("select max(" + ESCAPED_ORDER_COLUMN_NAME + ") from pages where api = ? "
+            Integer result = jdbcTemplate.queryForObject("select max(" + dialect.escapeReservedWord("order") + ") from pages where api = ? "
                     , Integer.class
                     , apiId
             );
@@ -373,19 +393,28 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
         }
     }
 
+    @Override
+    public Set<Page> findAll() throws TechnicalException {
+        LOGGER.debug("JdbcPageRepository.findAll()");
+        try {
+            final List<Page> pages = jdbcTemplate.query(ORM.getSelectAllSql(dialect), mapper);
+            addExcludedGroups(pages);
+            return new HashSet<>(pages);
+        } catch (final Exception ex) {
+            LOGGER.error("Failed to find all pages:", ex);
+            throw new TechnicalException("Failed to find all pages", ex);
+        }
+    }
+
+    /**
+     * Searches pages without their content, as listings like the portal navigation don't use it. The content of a page
+     * is read by {@link #findById(String)}.
+     */
     @Override
     public List<Page> search(PageCriteria criteria) throws TechnicalException {
-        LOGGER.debug("JdbcPageRepository.search()");
+        LOGGER.debug("JdbcPageRepository.search({})", criteria);
         try {
-            JdbcHelper.CollatingRowMapper<Page> rowMapper = new JdbcHelper.CollatingRowMapper<>(mapper, CHILD_ADDER, "id");
-
-            String select = "select p.*, " +
-                    "pm.k as pm_k, pm.v as pm_v, " +
-                    "pc.k as pc_k, pc.v as pc_v " +
-                    "from pages p " +
-                    "left join page_configuration pc on p.id = pc.page_id " +
-                    "left join page_metadata pm on p.id = pm.page_id " +
-                    "where";
+            String select = "select " + selectColumnsWithoutContent + " from pages p where";
             StringJoiner where = new StringJoiner(" and ", " ", " ");
             List<Object> params = new ArrayList<>();
 
@@ -421,12 +450,9 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
                 }
             }
 
-            jdbcTemplate.query(select + where.toString() + "order by " + ESCAPED_ORDER_COLUMN_NAME, rowMapper, params.toArray());
-
-            List<Page> items = rowMapper.getRows();
-            for (Page page : items) {
-                addExcludedGroups(page);
-            }
+            List<Page> items = jdbcTemplate.query(select + where.toString() + "order by " + dialect.escapeReservedWord("order"), mapper, params.toArray());
+            addConfigurationAndMetadata(items);
+            addExcludedGroups(items);
             return items;
         } catch (final Exception ex) {
             final String message = "Failed to find portal pages";
@@ -439,7 +465,7 @@ public class JdbcPageRepository extends JdbcAbstractCrudRepository<Page, String>
     public Integer findMaxPortalPageOrder() throws TechnicalException {
         LOGGER.debug("JdbcPageRepository.findMaxPortalPageOrder()");
         try {
-            return jdbcTemplate.queryForObject("select max(" + ESCAPED_ORDER_COLUMN_NAME + ") from pages where api is null "
+            return jdbcTemplate.queryForObject("select max(" + dialect.escapeReservedWord("order") + ") from pages where api is null "
                     , Integer.class
             );
         } catch (final Exception ex) {
@@ -29,7 +29,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static org.springframework.util.StringUtils.isEmpty;
 
 /**
@@ -65,9 +64,8 @@ public class JdbcParameterRepository extends JdbcAbstractCrudRepository<Paramete
             if (isEmpty(keys)) {
                 return Collections.emptyList();
             }
-            List<Parameter> parameters = jdbcTemplate.query("select * from parameters where " + escapeReservedWord("key") + " in ( "
-                            + ORM.buildInClause(keys) + " )"
-                    , (PreparedStatement ps) -> ORM.setArguments(ps, keys, 1)
+            List<Parameter> parameters = jdbcTemplate.query("select * from parameters where " + dialect.buildInCondition(dialect.escapeReservedWord("key"), keys.size())
+                    , (PreparedStatement ps) -> ORM.setArguments(dialect, ps, keys, 1)
                     , ORM.getRowMapper()
             );
             return new ArrayList<>(parameters);
@@ -16,6 +16,7 @@
 package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
 import io.gravitee.repository.management.api.PlanRepository;
 import io.gravitee.repository.management.model.Plan;
@@ -25,6 +26,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -45,6 +47,12 @@ public class JdbcPlanRepository implements PlanRepository {
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlDialect dialect;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
     
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(Plan.class, "plans", "id")
             .addColumn("id", Types.NVARCHAR, String.class)
@@ -120,11 +128,14 @@ public class JdbcPlanRepository implements PlanRepository {
     public Plan create(Plan item) throws TechnicalException {
         LOGGER.debug("JdbcPlanRepository.create({})", item);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(item));
-            storeApis(item, false);
-            storeCharacteristics(item, false);
-            storeExcludedGroups(item, false);
-            return findById(item.getId()).orElse(null);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, item));
+                storeApis(item, false);
+                storeCharacteristics(item, false);
+                storeExcludedGroups(item, false);
+                return null;
+            });
+            return toPersisted(item);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create plan", ex);
             throw new TechnicalException("Failed to create plan", ex);
@@ -138,12 +149,17 @@ public class JdbcPlanRepository implements PlanRepository {
             throw new IllegalStateException();
         }
         try {
-            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(plan, plan.getId()));
-            storeApis(plan, true);
-            storeCharacteristics(plan, true);
-            storeExcludedGroups(plan, true);
-            return findById(plan.getId()).orElseThrow(() ->
-                    new IllegalStateException(format("No plan found with id [%s]", plan.getId())));
+            transactionTemplate.execute(status -> {
+                int rows = jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, plan, plan.getId()));
+                if (rows == 0) {
+                    throw new IllegalStateException(format("No plan found with id [%s]", plan.getId()));
+                }
+                storeApis(plan, true);
+                storeCharacteristics(plan, true);
+                storeExcludedGroups(plan, true);
+                return null;
+            });
+            return toPersisted(plan);
         } catch (final IllegalStateException ex) {
             throw ex;
         } catch (final Exception ex) {
@@ -152,14 +168,25 @@ public class JdbcPlanRepository implements PlanRepository {
         }
     }
 
+    private Plan toPersisted(Plan plan) {
+        final Plan persisted = (Plan) ORM.copy(plan);
+        persisted.setApis(new HashSet<>(ORM.filterStrings(plan.getApis())));
+        persisted.setCharacteristics(new ArrayList<>(ORM.filterStrings(plan.getCharacteristics())));
+        persisted.setExcludedGroups(plan.getExcludedGroups() == null ? new ArrayList<>() : new ArrayList<>(plan.getExcludedGroups()));
+        return persisted;
+    }
+
     @Override
     public void delete(String id) throws TechnicalException {
         LOGGER.debug("JdbcPlanRepository.delete({})", id);
         try {
-            jdbcTemplate.update("delete from plan_apis where plan_id = ?", id);
-            jdbcTemplate.update("delete from plan_characteristics where plan_id = ?", id);
-            jdbcTemplate.update("delete from plan_excluded_groups where plan_id = ?", id);
-            jdbcTemplate.update(ORM.getDeleteSql(), id);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update("delete from plan_apis where plan_id = ?", id);
+                jdbcTemplate.update("delete from plan_characteristics where plan_id = ?", id);
+                jdbcTemplate.update("delete from plan_excluded_groups where plan_id = ?", id);
+                jdbcTemplate.update(ORM.getDeleteSql(dialect), id);
+                return null;
+            });
         } catch (final Exception ex) {
             LOGGER.error("Failed to delete plan:", ex);
             throw new TechnicalException("Failed to delete plan", ex);
@@ -182,37 +209,27 @@ public class JdbcPlanRepository implements PlanRepository {
                 , pageId);
     }
     
-    private void storeApis(Plan plan, boolean deleteFirst) throws TechnicalException {
+    private void storeApis(Plan plan, boolean deleteFirst) {
         LOGGER.debug("JdbcPlanRepository.storeApis({}, {})", plan, deleteFirst);
-        try {
-            if (deleteFirst) {
-                jdbcTemplate.update("delete from plan_apis where plan_id = ?", plan.getId());
-            }
-            List<String> filteredApis = ORM.filterStrings(plan.getApis());
-            if (! filteredApis.isEmpty()) {
-                jdbcTemplate.batchUpdate("insert into plan_apis ( plan_id, api ) values ( ?, ? )"
-                        , ORM.getBatchStringSetter(plan.getId(), filteredApis));
-            }
-        } catch (final Exception ex) {
-            LOGGER.error("Failed to store apis:", ex);
-            throw new TechnicalException("Failed to store apis", ex);
+        if (deleteFirst) {
+            jdbcTemplate.update("delete from plan_apis where plan_id = ?", plan.getId());
+        }
+        List<String> filteredApis = ORM.filterStrings(plan.getApis());
+        if (! filteredApis.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into plan_apis ( plan_id, api ) values ( ?, ? )"
+                    , ORM.getBatchStringSetter(plan.getId(), filteredApis));
         }
     }
     
-    private void storeCharacteristics(Plan plan, boolean deleteFirst) throws TechnicalException {
-        LOGGER.debug("JdbcPlanRepository.storeApis({}, {})", plan, deleteFirst);
-        try {
-            if (deleteFirst) {
-                jdbcTemplate.update("delete from plan_characteristics where plan_id = ?", plan.getId());
-            }
-            List<String> filteredCharacteristics = ORM.filterStrings(plan.getCharacteristics());
-            if (! filteredCharacteristics.isEmpty()) {
-                jdbcTemplate.batchUpdate("insert into plan_characteristics ( plan_id, characteristic ) values ( ?, ? )"
-                        , ORM.getBatchStringSetter(plan.getId(), filteredCharacteristics));
-            }
-        } catch (final Exception ex) {
-            LOGGER.error("Failed to store characteristics:", ex);
-            throw new TechnicalException("Failed to store characteristics", ex);
+    private void storeCharacteristics(Plan plan, boolean deleteFirst) {
+        LOGGER.debug("JdbcPlanRepository.storeCharacteristics({}, {})", plan, deleteFirst);
+        if (deleteFirst) {
+            jdbcTemplate.update("delete from plan_characteristics where plan_id = ?", plan.getId());
+        }
+        List<String> filteredCharacteristics = ORM.filterStrings(plan.getCharacteristics());
+        if (! filteredCharacteristics.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into plan_characteristics ( plan_id, characteristic ) values ( ?, ? )"
+                    , ORM.getBatchStringSetter(plan.getId(), filteredCharacteristics));
         }
     }
     
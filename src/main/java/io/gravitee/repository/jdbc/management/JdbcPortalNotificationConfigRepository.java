@@ -16,6 +16,7 @@
 package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
 import io.gravitee.repository.management.api.PortalNotificationConfigRepository;
 import io.gravitee.repository.management.model.NotificationReferenceType;
@@ -23,17 +24,21 @@ import io.gravitee.repository.management.model.PortalNotificationConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.*;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
 
 /**
  *
@@ -44,17 +49,31 @@ public class JdbcPortalNotificationConfigRepository implements PortalNotificatio
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcPortalNotificationConfigRepository.class);
 
+    private static final int DEFAULT_CACHE_MAX_SIZE = 10000;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SqlDialect dialect;
+
+    @Autowired
+    private Environment environment;
+
+    // all the configs of a reference, with their hooks, keyed by reference type and id
+    private JdbcCache<List<String>, List<PortalNotificationConfig>> configsByReference;
+
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(PortalNotificationConfig.class, "portal_notification_configs")
-            .updateSql("update portal_notification_configs set "
-                    + escapeReservedWord("user") + " = ?"
+            .updateSql(dialect -> "update portal_notification_configs set "
+                    + dialect.escapeReservedWord("user") + " = ?"
                     + " , reference_type = ?"
                     + " , reference_id = ?"
                     + " , created_at = ? "
                     + " , updated_at = ? "
-                    + " where " + escapeReservedWord("user") + " = ? "
+                    + " where " + dialect.escapeReservedWord("user") + " = ? "
                     + " and reference_type = ? "
                     + " and reference_id = ? "
             )
@@ -65,12 +84,33 @@ public class JdbcPortalNotificationConfigRepository implements PortalNotificatio
             .addColumn("updated_at", Types.TIMESTAMP, Date.class)
             .build();
 
+    private static final JdbcHelper.ChildAdder<PortalNotificationConfig> CHILD_ADDER = (PortalNotificationConfig parent, ResultSet rs) -> {
+        if (parent.getHooks() == null) {
+            parent.setHooks(new ArrayList<>());
+        }
+        final String hook = rs.getString("hook");
+        if (hook != null) {
+            parent.getHooks().add(hook);
+        }
+    };
+
+    @PostConstruct
+    void initCache() {
+        configsByReference = JdbcCache.fromEnvironment(environment, "portal_notification_configs"
+                , environment.getProperty("management.jdbc.cache.notification.maxSize", Integer.class, DEFAULT_CACHE_MAX_SIZE));
+    }
+
     @Override
     public PortalNotificationConfig create(final PortalNotificationConfig portalNotificationConfig) throws TechnicalException {
         LOGGER.debug("JdbcPortalNotificationConfigRepository.create({})", portalNotificationConfig);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(portalNotificationConfig));
-            storeHooks(portalNotificationConfig, false);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, portalNotificationConfig));
+                storeHooks(portalNotificationConfig, false);
+                evictReference(portalNotificationConfig);
+                return null;
+            });
+            evictReference(portalNotificationConfig);
             return findById(portalNotificationConfig.getUser(), portalNotificationConfig.getReferenceType(), portalNotificationConfig.getReferenceId()).orElse(null);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create PortalNotificationConfig", ex);
@@ -82,27 +122,32 @@ public class JdbcPortalNotificationConfigRepository implements PortalNotificatio
     public List<PortalNotificationConfig> findByReferenceAndHook(String hook, NotificationReferenceType referenceType, String referenceId) throws TechnicalException {
         LOGGER.debug("JdbcPortalNotificationConfigRepository.findByReferenceAndHook({}, {}, {})", hook, referenceType, referenceId);
         try {
-            StringBuilder q = new StringBuilder("select distinct pnc." + escapeReservedWord("user") + ", pnc.reference_type, pnc.reference_id, pnc.created_at, pnc.updated_at " +
-                    " from portal_notification_configs pnc" +
-                    " left join portal_notification_config_hooks pnch" +
-                    " on pnc.reference_type = pnch.reference_type" +
-                    " and pnc.reference_id = pnch.reference_id" +
-                    " and pnc."+ escapeReservedWord("user") +" = pnch."+ escapeReservedWord("user") +
-                    " where pnc.reference_type = ?" +
-                    " and pnc.reference_id = ?" +
-                    " and pnch.hook = ?"
-            );
-            final List<PortalNotificationConfig> items = jdbcTemplate.query(
-                    q.toString()
-                    , (PreparedStatement ps) -> {
-                            ps.setString(1, referenceType.name());
-                            ps.setString(2, referenceId);
-                            ps.setString(3, hook);
-                    }
-                    , ORM.getRowMapper()
-            );
-
-            return items;
+            final List<PortalNotificationConfig> items = configsByReference.get(
+                    Arrays.asList(referenceType.name(), referenceId)
+                    , key -> {
+                        final JdbcHelper.CollatingRowMapper<PortalNotificationConfig> rowMapper = new JdbcHelper.CollatingRowMapper<>(ORM.getRowMapper(), CHILD_ADDER, "user");
+                        jdbcTemplate.query("select pnc." + dialect.escapeReservedWord("user") + ", pnc.reference_type, pnc.reference_id, pnc.created_at, pnc.updated_at, pnch.hook " +
+                                        " from portal_notification_configs pnc" +
+                                        " left join portal_notification_config_hooks pnch" +
+                                        " on pnc.reference_type = pnch.reference_type" +
+                                        " and pnc.reference_id = pnch.reference_id" +
+                                        " and pnc." + dialect.escapeReservedWord("user") + " = pnch." + dialect.escapeReservedWord("user") +
+                                        " where pnc.reference_type = ?" +
+                                        " and pnc.reference_id = ?" +
+                                        " order by pnc." + dialect.escapeReservedWord("user")
+                                , rowMapper
+                                , referenceType.name()
+                                , referenceId
+                        );
+                        return unmodifiableList(rowMapper.getRows());
+                    });
+            final List<PortalNotificationConfig> result = new ArrayList<>();
+            for (final PortalNotificationConfig item : items) {
+                if (item.getHooks() != null && item.getHooks().contains(hook)) {
+                    result.add((PortalNotificationConfig) ORM.copy(item));
+                }
+            }
+            return result;
 
         } catch (final Exception ex) {
             final String message = "Failed to find notifications by reference and hook";
@@ -118,12 +163,17 @@ public class JdbcPortalNotificationConfigRepository implements PortalNotificatio
             throw new IllegalStateException("Failed to update null");
         }
         try {
-            jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(portalNotificationConfig
-                    , portalNotificationConfig.getUser()
-                    , portalNotificationConfig.getReferenceType().name()
-                    , portalNotificationConfig.getReferenceId()
-            ));
-            storeHooks(portalNotificationConfig, true);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildUpdatePreparedStatementCreator(dialect, portalNotificationConfig
+                        , portalNotificationConfig.getUser()
+                        , portalNotificationConfig.getReferenceType().name()
+                        , portalNotificationConfig.getReferenceId()
+                ));
+                storeHooks(portalNotificationConfig, true);
+                evictReference(portalNotificationConfig);
+                return null;
+            });
+            evictReference(portalNotificationConfig);
             return findById(portalNotificationConfig.getUser(), portalNotificationConfig.getReferenceType(), portalNotificationConfig.getReferenceId())
                     .orElseThrow(() ->
                             new IllegalStateException(format("No portalNotificationConfig found with id [%s, %s, %s]",
@@ -141,9 +191,9 @@ public class JdbcPortalNotificationConfigRepository implements PortalNotificatio
         LOGGER.debug("JdbcPortalNotificationConfigRepository.findById({}, {}, {})", user, referenceType, referenceId);
         try {
             final List<PortalNotificationConfig> items = jdbcTemplate.query(
-                    "select " + escapeReservedWord("user") + ", reference_type, reference_id, created_at, updated_at " +
+                    "select " + dialect.escapeReservedWord("user") + ", reference_type, reference_id, created_at, updated_at " +
                             " from portal_notification_configs" +
-                            " where " + escapeReservedWord("user") + " = ?" +
+                            " where " + dialect.escapeReservedWord("user") + " = ?" +
                             " and reference_type = ?" +
                             " and reference_id = ?"
                     , ORM.getRowMapper()
@@ -165,28 +215,41 @@ public class JdbcPortalNotificationConfigRepository implements PortalNotificatio
     public void delete(PortalNotificationConfig portalNotificationConfig) throws TechnicalException {
         LOGGER.debug("JdbcPortalNotificationConfigRepository.delete({})", portalNotificationConfig);
         try {
-            jdbcTemplate.update(
-                    "delete from portal_notification_configs" +
-                            " where " + escapeReservedWord("user") + " = ?" +
-                            " and reference_type = ?" +
-                            " and reference_id = ? "
-                    , portalNotificationConfig.getUser()
-                    , portalNotificationConfig.getReferenceType().name()
-                    , portalNotificationConfig.getReferenceId()
-            );
-            portalNotificationConfig.setHooks(Collections.emptyList());
-            storeHooks(portalNotificationConfig, true);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(
+                        "delete from portal_notification_configs" +
+                                " where " + dialect.escapeReservedWord("user") + " = ?" +
+                                " and reference_type = ?" +
+                                " and reference_id = ? "
+                        , portalNotificationConfig.getUser()
+                        , portalNotificationConfig.getReferenceType().name()
+                        , portalNotificationConfig.getReferenceId()
+                );
+                portalNotificationConfig.setHooks(Collections.emptyList());
+                storeHooks(portalNotificationConfig, true);
+                evictReference(portalNotificationConfig);
+                return null;
+            });
+            evictReference(portalNotificationConfig);
         } catch (final Exception ex) {
             LOGGER.error("Failed to delete PortalNotificationConfig", ex);
             throw new TechnicalException("Failed to delete PortalNotificationConfig", ex);
         }    }
 
+    /**
+     * Called within the transaction writing the config, then again once it is committed, as a read during the
+     * transaction may have cached the previous configs.
+     */
+    private void evictReference(final PortalNotificationConfig portalNotificationConfig) {
+        configsByReference.evict(Arrays.asList(portalNotificationConfig.getReferenceType().name(), portalNotificationConfig.getReferenceId()));
+    }
+
     private void addHooks(PortalNotificationConfig parent) {
         List<String> hooks = new ArrayList<>();
         jdbcTemplate.query(
                 "select hook" +
                         " from portal_notification_config_hooks" +
-                        " where " + escapeReservedWord("user") + " = ?" +
+                        " where " + dialect.escapeReservedWord("user") + " = ?" +
                         " and reference_id = ?" +
                         " and reference_type = ?"
                 , rs -> { hooks.add(rs.getString(1)); },
@@ -200,14 +263,14 @@ public class JdbcPortalNotificationConfigRepository implements PortalNotificatio
         if (deleteFirst) {
             jdbcTemplate.update(
                     "delete from portal_notification_config_hooks" +
-                            " where " + escapeReservedWord("user") + " = ?" +
+                            " where " + dialect.escapeReservedWord("user") + " = ?" +
                             " and reference_id = ?" +
                             " and reference_type = ?"
                     , parent.getUser(), parent.getReferenceId(), parent.getReferenceType().name()
             );
         }
         if (parent.getHooks() != null && !parent.getHooks().isEmpty()) {
-            jdbcTemplate.batchUpdate("insert into portal_notification_config_hooks ( " + escapeReservedWord("user") + ", reference_id, reference_type, hook ) values ( ?, ?, ?, ? )"
+            jdbcTemplate.batchUpdate("insert into portal_notification_config_hooks ( " + dialect.escapeReservedWord("user") + ", reference_id, reference_type, hook ) values ( ?, ?, ?, ? )"
                     , new BatchPreparedStatementSetter() {
                         @Override
                         public void setValues(PreparedStatement ps, int i) throws SQLException {
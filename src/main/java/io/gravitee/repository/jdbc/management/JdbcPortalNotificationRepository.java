@@ -27,7 +27,6 @@ import java.sql.Types;
 import java.util.Date;
 import java.util.List;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 
 /**
  *
@@ -60,7 +59,7 @@ public class JdbcPortalNotificationRepository extends JdbcAbstractCrudRepository
     public List<PortalNotification> findByUser(String user) throws TechnicalException {
         LOGGER.debug("JdbcPortalNotificationRepository.findByUser({})", user);
         try {
-            List<PortalNotification> items = jdbcTemplate.query("select * from portal_notifications where " + escapeReservedWord("user") + " = ?"
+            List<PortalNotification> items = jdbcTemplate.query("select * from portal_notifications where " + dialect.escapeReservedWord("user") + " = ?"
                     , getRowMapper()
                     ,user
             );
@@ -74,16 +73,14 @@ public class JdbcPortalNotificationRepository extends JdbcAbstractCrudRepository
 
     @Override
     public void create(List<PortalNotification> notifications) throws TechnicalException {
-        for (PortalNotification notification : notifications) {
-            this.create(notification);
-        }
+        createAll(notifications);
     }
 
     @Override
     public void deleteAll(String user) throws TechnicalException {
         LOGGER.debug("JdbcPortalNotificationRepository.deleteAll({})", user);
         try {
-            jdbcTemplate.update("delete from portal_notifications where " + escapeReservedWord("user") + " = ?", user);
+            jdbcTemplate.update("delete from portal_notifications where " + dialect.escapeReservedWord("user") + " = ?", user);
         } catch (final Exception ex) {
             final String message = "Failed to delete notifications by user";
             LOGGER.error(message, ex);
@@ -59,7 +59,7 @@ public class JdbcRatingAnswerRepository extends JdbcAbstractCrudRepository<Ratin
     public RatingAnswer create(RatingAnswer item) throws TechnicalException {
         LOGGER.debug("JdbcRatingAnswerRepository.create({})", item);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(item));
+            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, item));
             return findById(item.getId()).orElse(null);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create ratingAnswer:", ex);
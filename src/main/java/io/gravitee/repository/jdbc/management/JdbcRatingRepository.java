@@ -30,7 +30,6 @@ import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 
 /**
  *
@@ -66,7 +65,7 @@ public class JdbcRatingRepository extends JdbcAbstractCrudRepository<Rating, Str
     public Rating create(Rating item) throws TechnicalException {
         LOGGER.debug("JdbcRatingRepository.create({})", item);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(item));
+            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, item));
             return findById(item.getId()).orElse(null);
         } catch (final Exception ex) {
             LOGGER.error("Failed to create rating:", ex);
@@ -110,7 +109,7 @@ public class JdbcRatingRepository extends JdbcAbstractCrudRepository<Rating, Str
     public Optional<Rating> findByApiAndUser(String api, String user) throws TechnicalException {
         LOGGER.debug("JdbcRatingRepository.findByApiAndUser({}, {})", api, user);
         try {
-            List<Rating> ratings = jdbcTemplate.query("select r.* from ratings r where api = ? and " + escapeReservedWord("user") + " = ?"
+            List<Rating> ratings = jdbcTemplate.query("select r.* from ratings r where api = ? and " + dialect.escapeReservedWord("user") + " = ?"
                     , ORM.getRowMapper()
                     , api
                     , user
@@ -16,6 +16,7 @@
 package io.gravitee.repository.jdbc.management;
 
 import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.jdbc.orm.JdbcObjectMapper;
 import io.gravitee.repository.management.api.RoleRepository;
 import io.gravitee.repository.management.model.Role;
@@ -23,18 +24,20 @@ import io.gravitee.repository.management.model.RoleScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.sql.PreparedStatement;
+import javax.annotation.PostConstruct;
 import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.sql.Types;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static java.lang.String.format;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
 
 /**
  *
@@ -50,6 +53,32 @@ public class JdbcRoleRepository implements RoleRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private SqlDialect dialect;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    private long timeToLive;
+
+    // immutable roles of all the scopes, with their permissions, replaced as a whole when reloaded
+    private volatile Roles roles;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private static class Roles {
+
+        private final Map<RoleScope, Map<String, Role>> byScope;
+        private final long loadedAt;
+
+        Roles(Map<RoleScope, Map<String, Role>> byScope, long loadedAt) {
+            this.byScope = byScope;
+            this.loadedAt = loadedAt;
+        }
+    }
+
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(Role.class, "roles", "key")
             .addColumn("name", Types.NVARCHAR, String.class)
             .addColumn(SCOPE_FIELD, Types.NVARCHAR, RoleScope.class)
@@ -60,6 +89,9 @@ public class JdbcRoleRepository implements RoleRepository {
             .addColumn("updated_at", Types.TIMESTAMP, Date.class)
             .build();
 
+    private static final JdbcChildTableSynchronizer<String, Void> PERMISSIONS =
+            JdbcChildTableSynchronizer.forSet("role_permissions", "permission", String.class, "role_scope", "role_name");
+
     private static final JdbcHelper.ChildAdder<Role> CHILD_ADDER = (Role parent, ResultSet rs) -> {
         int permission = rs.getInt("permission");
         if (!rs.wasNull()) {
@@ -78,9 +110,14 @@ public class JdbcRoleRepository implements RoleRepository {
     public Role create(Role item) throws TechnicalException {
         LOGGER.debug("JdbcRoleRepository.create({})", item);
         try {
-            jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(item));
-            storePermissions(item, false);
-            return findById(item.getScope(), item.getName()).orElse(null);
+            final Role written = written(item);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update(ORM.buildInsertPreparedStatementCreator(dialect, written));
+                storePermissions(written, false);
+                return null;
+            });
+            invalidateRoles();
+            return written;
         } catch (final Exception ex) {
             LOGGER.error("Failed to create role", ex);
             throw new TechnicalException("Failed to create role", ex);
@@ -94,30 +131,37 @@ public class JdbcRoleRepository implements RoleRepository {
             throw new IllegalStateException();
         }
         try {
-            jdbcTemplate.update("update roles set "
-                            + " scope = ?"
-                            + " , name = ?"
-                            + " , description = ?"
-                            + " , default_role = ?"
-                            + " , " + escapeReservedWord("system") + " = ? "
-                            + " , created_at = ? "
-                            + " , updated_at = ? "
-                            + " where "
-                            + " scope = ? "
-                            + " and name = ? "
-                    , role.getScope() == null ? null : role.getScope().name()
-                    , role.getName()
-                    , role.getDescription()
-                    , role.isDefaultRole()
-                    , role.isSystem()
-                    , role.getCreatedAt()
-                    , role.getUpdatedAt()
-                    , role.getScope() == null ? null : role.getScope().name()
-                    , role.getName()
-            );
-            storePermissions(role, true);
-            return findById(role.getScope(), role.getName()).orElseThrow(() ->
-                    new IllegalStateException(format("No role found with id [%s, %s]", role.getScope(), role.getName())));
+            final Role written = written(role);
+            transactionTemplate.execute(status -> {
+                final int rows = jdbcTemplate.update("update roles set "
+                                + " scope = ?"
+                                + " , name = ?"
+                                + " , description = ?"
+                                + " , default_role = ?"
+                                + " , " + dialect.escapeReservedWord("system") + " = ? "
+                                + " , created_at = ? "
+                                + " , updated_at = ? "
+                                + " where "
+                                + " scope = ? "
+                                + " and name = ? "
+                        , role.getScope() == null ? null : role.getScope().name()
+                        , role.getName()
+                        , role.getDescription()
+                        , role.isDefaultRole()
+                        , role.isSystem()
+                        , role.getCreatedAt()
+                        , role.getUpdatedAt()
+                        , role.getScope() == null ? null : role.getScope().name()
+                        , role.getName()
+                );
+                if (rows == 0) {
+                    throw new IllegalStateException(format("No role found with id [%s, %s]", role.getScope(), role.getName()));
+                }
+                storePermissions(written, true);
+                return null;
+            });
+            invalidateRoles();
+            return written;
         } catch (final IllegalStateException ex) {
             throw ex;
         } catch (final Exception ex) {
@@ -131,8 +175,11 @@ public class JdbcRoleRepository implements RoleRepository {
     public void delete(RoleScope scope, String name) throws TechnicalException {
         LOGGER.debug("JdbcRoleRepository.delete({}, {})", scope, name);
         try {
-            jdbcTemplate.update("delete from role_permissions where role_scope = ? and role_name = ?", scope.name(), name);
-            jdbcTemplate.update("delete from roles where scope = ? and name = ?", scope.name(), name);
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.update("delete from role_permissions where role_scope = ? and role_name = ?", scope.name(), name);
+                return jdbcTemplate.update("delete from roles where scope = ? and name = ?", scope.name(), name);
+            });
+            invalidateRoles();
         } catch (final Exception ex) {
             LOGGER.error("Failed to delete role:", ex);
             throw new TechnicalException("Failed to delete role", ex);
@@ -158,52 +205,103 @@ public class JdbcRoleRepository implements RoleRepository {
         return permissions;
     }
 
-    private void storePermissions(Role role, boolean deleteFirst) throws TechnicalException {
+    private void storePermissions(Role role, boolean deleteFirst) {
         LOGGER.debug("JdbcRoleRepository.storePermissions({}, {})", role, deleteFirst);
+        // the permission column is a varchar, so permissions are compared as strings
+        final List<String> permissions = new ArrayList<>();
+        for (int permission : dedupePermissions(role.getPermissions())) {
+            permissions.add(String.valueOf(permission));
+        }
+        final String scope = role.getScope() == null ? null : role.getScope().name();
+        if (deleteFirst) {
+            PERMISSIONS.synchronize(jdbcTemplate, permissions, scope, role.getName());
+        } else {
+            PERMISSIONS.insert(jdbcTemplate, permissions, scope, role.getName());
+        }
+    }
+
+    @PostConstruct
+    void initCache() {
+        timeToLive = JdbcCache.getTimeToLive(environment);
         try {
-            if (deleteFirst) {
-                jdbcTemplate.update("delete from role_permissions where role_scope = ? and role_name = ?"
-                        , role.getScope() == null ? null : role.getScope().name()
-                        , role.getName()
-                );
+            getRoles();
+        } catch (final Exception ex) {
+            // loaded again by the first read
+            LOGGER.warn("Failed to preload roles", ex);
+        }
+    }
+
+    /**
+     * Roles of all the scopes, loaded by a single query and kept until they are older than the time to live or a
+     * role is written. Roles loaded while a role was being written are returned but not kept.
+     */
+    private Map<RoleScope, Map<String, Role>> getRoles() {
+        final Roles current = roles;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < timeToLive) {
+            return current.byScope;
+        }
+        LOGGER.debug("Loading roles");
+        final long expectedInvalidations = invalidations.get();
+        final JdbcHelper.CollatingRowMapperTwoColumn<Role> rowMapper = new JdbcHelper.CollatingRowMapperTwoColumn<>(ORM.getRowMapper(), CHILD_ADDER, SCOPE_FIELD, "name");
+        jdbcTemplate.query("select * from roles r "
+                + " left join role_permissions rp on rp.role_scope = r.scope and rp.role_name = r.name "
+                + " order by r.scope, r.name"
+                , rowMapper
+        );
+        final Map<RoleScope, Map<String, Role>> byScope = new EnumMap<>(RoleScope.class);
+        for (final Role role : rowMapper.getRows()) {
+            if (role.getScope() != null) {
+                byScope.computeIfAbsent(role.getScope(), scope -> new HashMap<>()).put(role.getName(), role);
             }
-            int[] permissions = dedupePermissions(role.getPermissions());
-            if ((permissions != null) && permissions.length > 0) {
-                jdbcTemplate.batchUpdate("insert into role_permissions ( role_scope, role_name, permission ) values ( ?, ?, ? )"
-                        , new BatchPreparedStatementSetter() {
-                    @Override
-                    public void setValues(PreparedStatement ps, int i) throws SQLException {
-                        ps.setString(1, role.getScope().name());
-                        ps.setString(2, role.getName());
-                        ps.setInt(3, permissions[i]);
-                    }
-
-                    @Override
-                    public int getBatchSize() {
-                        return permissions.length;
-                    }
-                });
+        }
+        for (final Map.Entry<RoleScope, Map<String, Role>> entry : byScope.entrySet()) {
+            entry.setValue(unmodifiableMap(entry.getValue()));
+        }
+        final Roles loaded = new Roles(unmodifiableMap(byScope), System.currentTimeMillis());
+        synchronized (invalidations) {
+            if (invalidations.get() == expectedInvalidations) {
+                roles = loaded;
             }
-        } catch (final Exception ex) {
-            LOGGER.error("Failed to store role permissions:", ex);
-            throw new TechnicalException("Failed to store role permissions", ex);
+        }
+        return loaded.byScope;
+    }
+
+    private Map<String, Role> getRoles(final RoleScope scope) {
+        return getRoles().getOrDefault(scope, emptyMap());
+    }
+
+    private void invalidateRoles() {
+        synchronized (invalidations) {
+            invalidations.incrementAndGet();
+            roles = null;
         }
     }
 
+    /**
+     * Copy of the role as it is stored, so that it can be returned without being read back.
+     */
+    private Role written(final Role role) {
+        final Role copy = copy(role);
+        if (role.getPermissions() != null) {
+            copy.setPermissions(dedupePermissions(role.getPermissions()));
+        }
+        return copy;
+    }
+
+    private Role copy(final Role role) {
+        if (role == null) {
+            return null;
+        }
+        final Role copy = (Role) ORM.copy(role);
+        copy.setPermissions(role.getPermissions() == null ? null : role.getPermissions().clone());
+        return copy;
+    }
+
     @Override
     public Optional<Role> findById(RoleScope scope, String name) throws TechnicalException {
         LOGGER.debug("JdbcRoleRepository.findById({}, {})", scope, name);
         try {
-            JdbcHelper.CollatingRowMapperTwoColumn<Role> rowMapper = new JdbcHelper.CollatingRowMapperTwoColumn<>(ORM.getRowMapper(), CHILD_ADDER, SCOPE_FIELD, "name");
-            jdbcTemplate.query("select * from roles r"
-                    + " left join role_permissions rp on rp.role_scope = r.scope and rp.role_name = r.name"
-                    + " where r.scope = ? and r.name = ?"
-                    + " order by r.scope,r.name"
-                    , rowMapper
-                    , scope == null ? null : scope.name()
-                    , name
-            );
-            Optional<Role> result = rowMapper.getRows().stream().findFirst();
+            Optional<Role> result = Optional.ofNullable(scope == null ? null : copy(getRoles(scope).get(name)));
             LOGGER.debug("JdbcRoleRepository.findById({}, {}) = {}", scope, name, result);
             return result;
         } catch (final Exception ex) {
@@ -216,15 +314,13 @@ public class JdbcRoleRepository implements RoleRepository {
     public Set<Role> findByScope(RoleScope scope) throws TechnicalException {
         LOGGER.debug("JdbcRoleRepository.findByScope({})", scope);
         try {
-            JdbcHelper.CollatingRowMapperTwoColumn<Role> rowMapper = new JdbcHelper.CollatingRowMapperTwoColumn<>(ORM.getRowMapper(), CHILD_ADDER, SCOPE_FIELD, "name");
-            jdbcTemplate.query("select * from roles r "
-                    + " left join role_permissions rp on rp.role_scope = r.scope and rp.role_name = r.name "
-                    + " where r.scope = ? "
-                    + " order by r.scope, r.name"
-                    , rowMapper
-                    , scope.name()
-            );
-            return new HashSet<>(rowMapper.getRows());
+            final Set<Role> result = new HashSet<>();
+            if (scope != null) {
+                for (final Role role : getRoles(scope).values()) {
+                    result.add(copy(role));
+                }
+            }
+            return result;
         } catch (final Exception ex) {
             LOGGER.error("Failed to find role by scope:", ex);
             throw new TechnicalException("Failed to find role by scope", ex);
@@ -235,14 +331,13 @@ public class JdbcRoleRepository implements RoleRepository {
     public Set<Role> findAll() throws TechnicalException {
         LOGGER.debug("JdbcRoleRepository.findAll()");
         try {
-            JdbcHelper.CollatingRowMapperTwoColumn<Role> rowMapper = new JdbcHelper.CollatingRowMapperTwoColumn<>(ORM.getRowMapper(), CHILD_ADDER, SCOPE_FIELD, "name");
-            jdbcTemplate.query("select * from roles r "
-                    + " left join role_permissions rp on rp.role_scope = r.scope and rp.role_name = r.name "
-                    + " order by r.scope, r.name"
-                    , rowMapper
-            );
-            return new HashSet<>(rowMapper.getRows());
-
+            final Set<Role> result = new HashSet<>();
+            for (final Map<String, Role> rolesOfScope : getRoles().values()) {
+                for (final Role role : rolesOfScope.values()) {
+                    result.add(copy(role));
+                }
+            }
+            return result;
         } catch (final Exception ex) {
             LOGGER.error("Failed to find all roles:", ex);
             throw new TechnicalException("Failed to find all roles", ex);
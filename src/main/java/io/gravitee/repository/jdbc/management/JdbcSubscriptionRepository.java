@@ -106,13 +106,13 @@ public class JdbcSubscriptionRepository extends JdbcAbstractCrudRepository<Subsc
             argsList.add(criteria.getClientId());
             started = true;
         }
-        started = addStringsWhereClause(criteria.getPlans(), "plan", argsList, builder, started);
-        started = addStringsWhereClause(criteria.getApplications(), "application", argsList, builder, started);
-        started = addStringsWhereClause(criteria.getApis(), "api", argsList, builder, started);
+        started = addStringsWhereClause(dialect, criteria.getPlans(), "plan", argsList, builder, started);
+        started = addStringsWhereClause(dialect, criteria.getApplications(), "application", argsList, builder, started);
+        started = addStringsWhereClause(dialect, criteria.getApis(), "api", argsList, builder, started);
 
         if (!isEmpty(criteria.getStatuses())) {
             final Collection<String> statuses = criteria.getStatuses().stream().map(Enum::name).collect(toList());
-            addStringsWhereClause(statuses, "status", argsList, builder, started);
+            addStringsWhereClause(dialect, statuses, "status", argsList, builder, started);
         }
 
         builder.append(" order by created_at desc ");
@@ -44,4 +44,9 @@ public class JdbcTagRepository extends JdbcAbstractCrudRepository<Tag, String> i
     protected String getId(Tag item) {
         return item.getId();
     }
+
+    @Override
+    protected boolean isSnapshotEnabled() {
+        return true;
+    }
 }
\ No newline at end of file
@@ -45,4 +45,9 @@ public class JdbcTenantRepository extends JdbcAbstractCrudRepository<Tenant, Str
         return item.getId();
     }
 
+    @Override
+    protected boolean isSnapshotEnabled() {
+        return true;
+    }
+
 }
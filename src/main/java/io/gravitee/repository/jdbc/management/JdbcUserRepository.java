@@ -25,12 +25,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
-import java.sql.PreparedStatement;
 import java.sql.Types;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 
 /**
  */
@@ -39,8 +37,6 @@ public class JdbcUserRepository extends JdbcAbstractCrudRepository<User, String>
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcUserRepository.class);
 
-    private static final String SELECT_ESCAPED_USER_TABLE_NAME = "select * from " + escapeReservedWord("users");
-
     private static final JdbcObjectMapper ORM = JdbcObjectMapper.builder(User.class, "users", "id")
             .addColumn("id", Types.NVARCHAR, String.class)
             .addColumn("created_at", Types.TIMESTAMP, Date.class)
@@ -69,7 +65,7 @@ public class JdbcUserRepository extends JdbcAbstractCrudRepository<User, String>
     public Optional<User> findBySource(String source, String sourceId) throws TechnicalException {
         LOGGER.debug("JdbcUserRepository.findBySource({}, {})", source, sourceId);
         try {
-            List<User> users = jdbcTemplate.query(SELECT_ESCAPED_USER_TABLE_NAME + " u where u.source = ? and u.source_id = ?"
+            List<User> users = jdbcTemplate.query(ORM.getSelectAllSql(dialect) + " u where u.source = ? and u.source_id = ?"
                     , ORM.getRowMapper()
                     , source, sourceId
             );
@@ -92,12 +88,15 @@ public class JdbcUserRepository extends JdbcAbstractCrudRepository<User, String>
             }
         }).collect(Collectors.toList());
         LOGGER.debug("JdbcUserRepository.findByIds({})", uniqueIds);
+        if (uniqueIds.isEmpty()) {
+            return new HashSet<>();
+        }
         try {
-            final List<User> users = jdbcTemplate.query(SELECT_ESCAPED_USER_TABLE_NAME + " u where u.id in ( "
-                    + ORM.buildInClause(uniqueIds) + " )"
-                    , (PreparedStatement ps) -> ORM.setArguments(ps, uniqueIds, 1)
-                    , ORM.getRowMapper()
-            );
+            final List<User> users = chunkedInQuery.query(uniqueIds, "u.id", (condition, args) ->
+                    jdbcTemplate.query(ORM.getSelectAllSql(dialect) + " u where " + condition
+                            , args.toArray()
+                            , ORM.getRowMapper()
+                    ));
             return new HashSet<>(users);
         } catch (final Exception ex) {
             final String msg = "Failed to find users by ids";
@@ -112,7 +111,7 @@ public class JdbcUserRepository extends JdbcAbstractCrudRepository<User, String>
             try {
                 return getResultAsPage(
                         pageable,
-                        jdbcTemplate.query(getOrm().getSelectAllSql(), getRowMapper()));
+                        jdbcTemplate.query(getOrm().getSelectAllSql(dialect), getRowMapper()));
             } catch (final Exception ex) {
                 LOGGER.error("Failed to find all {} items:", getOrm().getTableName(), ex);
                 throw new TechnicalException("Failed to find all " + getOrm().getTableName() + " items", ex);
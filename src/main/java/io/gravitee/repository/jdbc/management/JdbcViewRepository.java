@@ -53,4 +53,9 @@ public class JdbcViewRepository extends JdbcAbstractCrudRepository<View, String>
         return item.getId();
     }
 
+    @Override
+    protected boolean isSnapshotEnabled() {
+        return true;
+    }
+
 }
@@ -15,11 +15,14 @@
  */
 package io.gravitee.repository.jdbc.orm;
 
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlTypeValue;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
@@ -32,8 +35,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
 import static io.gravitee.repository.jdbc.management.JdbcHelper.WHERE_CLAUSE;
 import static io.gravitee.repository.jdbc.orm.JdbcColumn.getDBName;
 import static java.lang.Byte.parseByte;
@@ -41,6 +46,8 @@ import static java.util.Collections.emptyList;
 import static org.springframework.util.StringUtils.isEmpty;
 
 /**
+ * Maps the columns of a table to the properties of a class. The statements are built for the dialect of the
+ * datasource given by the caller, once per dialect.
  *
  * @author njt
  */
@@ -51,14 +58,31 @@ public class JdbcObjectMapper<T> {
     private final Constructor<T> constructor;
     private final List<JdbcColumn> columns;
     private final String idColumn;
-    private final String insertSql;
-    private final String updateSql;
-    private final String selectByIdSql;
-    private final String selectAllSql;
-    private final String deleteSql;
+    private final Function<SqlDialect, String> updateSqlBuilder;
+    private final Map<SqlDialect, Statements> statements = new ConcurrentHashMap<>();
     private final RowMapper<T> rowMapper;
     private final String tableName;
 
+    /**
+     * Statements of the table for a dialect.
+     */
+    private static class Statements {
+
+        private final String insertSql;
+        private final String updateSql;
+        private final String selectByIdSql;
+        private final String selectAllSql;
+        private final String deleteSql;
+
+        Statements(String insertSql, String updateSql, String selectByIdSql, String selectAllSql, String deleteSql) {
+            this.insertSql = insertSql;
+            this.updateSql = updateSql;
+            this.selectByIdSql = selectByIdSql;
+            this.selectAllSql = selectAllSql;
+            this.deleteSql = deleteSql;
+        }
+    }
+
     private static class BatchStringSetter implements BatchPreparedStatementSetter {
 
         private final Object parentId;
@@ -131,7 +155,7 @@ public class JdbcObjectMapper<T> {
         private Class<T> clazz;
         private String idColumn;
         private String tableName;
-        private String updateSql;
+        private Function<SqlDialect, String> updateSql;
         private List<JdbcColumn> columns = new ArrayList<>();
 
         private Builder(final Class<T> value, final String tableName, String idColumn) {
@@ -140,7 +164,10 @@ public class JdbcObjectMapper<T> {
             this.idColumn = idColumn;
         }
 
-        public Builder updateSql(String updateSql) {
+        /**
+         * Replaces the generated update statement, built for the dialect of the caller.
+         */
+        public Builder updateSql(Function<SqlDialect, String> updateSql) {
             this.updateSql = updateSql;
             return this;
         }
@@ -163,7 +190,7 @@ public class JdbcObjectMapper<T> {
         return new JdbcObjectMapper.Builder(clazz, tableName, idColumn);
     }
 
-    private JdbcObjectMapper(final Class clazz, final String idColumn, final List<JdbcColumn> columns, final String updateSql, final String tableName) {
+    private JdbcObjectMapper(final Class clazz, final String idColumn, final List<JdbcColumn> columns, final Function<SqlDialect, String> updateSql, final String tableName) {
         try {
             this.constructor = clazz.getConstructor();
         } catch (final Exception e) {
@@ -173,18 +200,43 @@ public class JdbcObjectMapper<T> {
         this.tableName = tableName;
         this.columns = columns;
         this.idColumn = idColumn;
-        this.insertSql = buildInsertStatement();
-        this.updateSql = updateSql == null ? buildUpdateStatement() : updateSql;
-        this.deleteSql = "delete from " + escapeReservedWord(tableName) + WHERE_CLAUSE + escapeReservedWord(idColumn) + " = ?";
-        this.selectByIdSql = "select * from " + escapeReservedWord(tableName) + WHERE_CLAUSE + escapeReservedWord(idColumn) + " = ?";
-        this.selectAllSql = "select * from " + escapeReservedWord(tableName);
+        this.updateSqlBuilder = updateSql;
         this.rowMapper = new Rm();
     }
 
+    private Statements getStatements(final SqlDialect dialect) {
+        return statements.computeIfAbsent(dialect, key -> new Statements(
+                buildInsertStatement(dialect),
+                updateSqlBuilder == null ? buildUpdateStatement(dialect) : updateSqlBuilder.apply(dialect),
+                "select * from " + dialect.escapeReservedWord(tableName) + WHERE_CLAUSE + dialect.escapeReservedWord(idColumn) + " = ?",
+                "select * from " + dialect.escapeReservedWord(tableName),
+                "delete from " + dialect.escapeReservedWord(tableName) + WHERE_CLAUSE + dialect.escapeReservedWord(idColumn) + " = ?"));
+    }
+
     public RowMapper<T> getRowMapper() {
         return rowMapper;
     }
 
+    public T copy(final T item) {
+        if (item == null) {
+            return null;
+        }
+        try {
+            final T copy = constructor.newInstance();
+            for (final JdbcColumn column : columns) {
+                Object value = column.getter.invoke(item);
+                if (value instanceof Date) {
+                    value = new Date(((Date) value).getTime());
+                }
+                column.setter.invoke(copy, value);
+            }
+            return copy;
+        } catch (IllegalAccessException | IllegalArgumentException | InstantiationException | InvocationTargetException ex) {
+            LOGGER.error("Failed to copy {}", tableName);
+            throw new IllegalStateException("Failed to copy " + tableName, ex);
+        }
+    }
+
     public BatchPreparedStatementSetter getBatchStringSetter(Object parentId, Collection<String> values) {
         return new BatchStringSetter(parentId, values);
     }
@@ -197,59 +249,75 @@ public class JdbcObjectMapper<T> {
         return columns;
     }
 
-    public String getSelectByIdSql() {
-        return selectByIdSql;
+    public String getSelectByIdSql(final SqlDialect dialect) {
+        return getStatements(dialect).selectByIdSql;
+    }
+
+    public String getSelectAllSql(final SqlDialect dialect) {
+        return getStatements(dialect).selectAllSql;
     }
 
-    public String getSelectAllSql() {
-        return selectAllSql;
+    public String getDeleteSql(final SqlDialect dialect) {
+        return getStatements(dialect).deleteSql;
     }
 
-    public String getDeleteSql() {
-        return deleteSql;
+    public PreparedStatementCreator buildInsertPreparedStatementCreator(final SqlDialect dialect, T item) {
+        return new Psc(getInsertSql(dialect), item);
+    }
+
+    public String getInsertSql(final SqlDialect dialect) {
+        return getStatements(dialect).insertSql;
+    }
+
+    /**
+     * Comma separated list of the escaped columns, in the order of {@link #setStatementValues(PreparedStatement, Object, int)}.
+     */
+    public String getColumnList(final SqlDialect dialect) {
+        final StringBuilder builder = new StringBuilder();
+        for (JdbcColumn column : columns) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(dialect.escapeReservedWord(getDBName(column.name)));
+        }
+        return builder.toString();
     }
 
-    public PreparedStatementCreator buildInsertPreparedStatementCreator(T item) {
-        return new Psc(insertSql, item);
+    public ParameterizedPreparedStatementSetter<T> buildBatchInsertSetter() {
+        return (PreparedStatement stmt, T item) -> {
+            LOGGER.trace("Item: {}", item);
+            setStatementValues(stmt, item, 1);
+        };
     }
 
-    public PreparedStatementCreator buildUpdatePreparedStatementCreator(T item, Object... ids) {
-        return new Psc(updateSql, item, ids);
+    public PreparedStatementCreator buildUpdatePreparedStatementCreator(final SqlDialect dialect, T item, Object... ids) {
+        return new Psc(getStatements(dialect).updateSql, item, ids);
     }
 
-    public boolean buildInCondition(boolean first, StringBuilder query, String column, Collection<String> args) {
+    public boolean buildInCondition(SqlDialect dialect, boolean first, StringBuilder query, String column, Collection<?> args) {
         if ((args != null) && !args.isEmpty()) {
             query.append(first ? " where " : " and ");
             first = false;
-            query.append(column).append(" in ( ");
-            buildInClause(query, args);
-            query.append(") ");
+            query.append(dialect.buildInCondition(column, args.size())).append(" ");
         }
         return first;
     }
 
-    public String buildInClause(Collection data) {
-        StringBuilder builder = new StringBuilder();
-        buildInClause(builder, data);
-        return builder.toString();
-    }
-
-    private void buildInClause(StringBuilder builder, Collection data) {
-        boolean first = true;
-        for (int i = 0; i < data.size(); i++) {
-            if (!first) {
-                builder.append(", ");
-            }
-            first = false;
-            builder.append("? ");
+    public int setArguments(SqlDialect dialect, PreparedStatement stmt, Collection<?> data, int idx) throws SQLException {
+        if ((data == null) || data.isEmpty()) {
+            // no condition was added for an empty collection
+            return idx;
         }
+        return setArguments(stmt, dialect.getInArguments(data), idx);
     }
 
     public int setArguments(PreparedStatement stmt, Collection data, int idx) throws SQLException {
         for (Object item : data) {
             LOGGER.trace("Setting {} to {}", idx, item);
 
-            if (item instanceof Enum) {
+            if (item instanceof SqlTypeValue) {
+                ((SqlTypeValue) item).setTypeValue(stmt, idx++, SqlTypeValue.TYPE_UNKNOWN, null);
+            } else if (item instanceof Enum) {
                 stmt.setString(idx++, ((Enum) item).name());
             } else {
                 stmt.setObject(idx++, item);
@@ -308,20 +376,13 @@ public class JdbcObjectMapper<T> {
         return value;
     }
 
-    private String buildInsertStatement() {
+    private String buildInsertStatement(final SqlDialect dialect) {
         final StringBuilder builder = new StringBuilder("insert into ");
-        builder.append(escapeReservedWord(tableName));
+        builder.append(dialect.escapeReservedWord(tableName));
         builder.append(" (");
-        boolean first = true;
-        for (JdbcColumn column : columns) {
-            if (!first) {
-                builder.append(", ");
-            }
-            first = false;
-            builder.append(escapeReservedWord(getDBName(column.name)));
-        }
+        builder.append(getColumnList(dialect));
         builder.append(" ) values ( ");
-        first = true;
+        boolean first = true;
         for (int i = 0; i < columns.size(); i++) {
             if (!first) {
                 builder.append(", ");
@@ -350,7 +411,8 @@ public class JdbcObjectMapper<T> {
                     final Date date = (Date) value;
                     stmt.setTimestamp(idx, new Timestamp(date.getTime()));
                 } else if (value instanceof InputStream && column.jdbcType == Types.BLOB) {
-                    stmt.setBlob(idx, (InputStream) value);
+                    // streamed by the driver, also works for the bytea columns of PostgreSQL
+                    stmt.setBinaryStream(idx, (InputStream) value);
                 } else if (value instanceof byte[] && column.jdbcType == Types.BLOB) {
                     stmt.setBytes(idx, (byte[]) value);
                 }else {
@@ -371,10 +433,10 @@ public class JdbcObjectMapper<T> {
         return setStatementValues(stmt, item, idx, columns);
     }
 
-    private String buildUpdateStatement() {
+    private String buildUpdateStatement(final SqlDialect dialect) {
         StringBuilder builder = new StringBuilder();
         builder.append("update ");
-        builder.append(escapeReservedWord(tableName));
+        builder.append(dialect.escapeReservedWord(tableName));
         builder.append(" set ");
         boolean first = true;
         for (JdbcColumn column : columns) {
@@ -382,11 +444,11 @@ public class JdbcObjectMapper<T> {
                 builder.append(", ");
             }
             first = false;
-            builder.append(escapeReservedWord(getDBName(column.name)));
+            builder.append(dialect.escapeReservedWord(getDBName(column.name)));
             builder.append(" = ?");
         }
         builder.append(" where ");
-        builder.append(escapeReservedWord(idColumn));
+        builder.append(dialect.escapeReservedWord(idColumn));
         builder.append(" = ?");
         return builder.toString();
     }
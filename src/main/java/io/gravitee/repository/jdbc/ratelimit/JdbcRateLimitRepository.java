@@ -15,6 +15,7 @@
  */
 package io.gravitee.repository.jdbc.ratelimit;
 
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import io.gravitee.repository.ratelimit.api.RateLimitRepository;
 import io.gravitee.repository.ratelimit.model.RateLimit;
 import org.slf4j.Logger;
@@ -24,14 +25,16 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
+import static java.util.Collections.singletonList;
 
 /**
  *
@@ -45,9 +48,14 @@ public class JdbcRateLimitRepository implements RateLimitRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
-    private static String buildInsertStatement() {
+    @Autowired
+    private SqlDialect dialect;
+
+    private String saveSql;
+
+    private String buildInsertStatement() {
         return "insert into ratelimit (" +
-                escapeReservedWord("key") +
+                dialect.escapeReservedWord("key") +
                 " , counter " +
                 " , last_request " +
                 " , reset_time " +
@@ -57,22 +65,13 @@ public class JdbcRateLimitRepository implements RateLimitRepository {
                 " ) values (?,  ? ,  ?,  ?,  ?,  ?,  ?)";
     }
 
-    private static final String INSERT_SQL = buildInsertStatement();
-
-    private static String buildUpdateStatement() {
-        return "update ratelimit set " +
-                escapeReservedWord("key") + " = ? " +
-                " , counter = ? " +
-                " , last_request = ? " +
-                " , reset_time = ? " +
-                " , created_at = ? " +
-                " , updated_at = ? " +
-                " , async = ?" +
-                " where " + escapeReservedWord("key") + " = ?";
+    @PostConstruct
+    public void init() {
+        // a single round trip whether the key is new or not; the creation date of an existing key is kept
+        saveSql = buildInsertStatement() + dialect.buildUpsertClause(singletonList(dialect.escapeReservedWord("key")),
+                Arrays.asList("counter", "last_request", "reset_time", "updated_at", "async"));
     }
 
-    private static final String UPDATE_SQL = buildUpdateStatement();
-
     private static class Rm implements RowMapper<RateLimit> {
 
         @Override
@@ -94,7 +93,7 @@ public class JdbcRateLimitRepository implements RateLimitRepository {
     @Override
     public RateLimit get(String rateLimitKey) {
         LOGGER.debug("JdbcRateLimitRepository.get({})", rateLimitKey);
-        final String escapedKeyColumn = escapeReservedWord("key");
+        final String escapedKeyColumn = dialect.escapeReservedWord("key");
         List<RateLimit> items = jdbcTemplate.query("select " + escapedKeyColumn
                         + " , counter, last_request, reset_time, created_at, updated_at, async "
                         + " from ratelimit "
@@ -112,8 +111,8 @@ public class JdbcRateLimitRepository implements RateLimitRepository {
     @Override
     public void save(RateLimit rateLimit) {
         LOGGER.debug("JdbcRateLimitRepository.save({})", rateLimit);
-        final int nbUpdatedElements = jdbcTemplate.update((Connection cnctn) -> {
-            PreparedStatement stmt = cnctn.prepareStatement(UPDATE_SQL);
+        jdbcTemplate.update((Connection cnctn) -> {
+            PreparedStatement stmt = cnctn.prepareStatement(saveSql);
             stmt.setString(1, rateLimit.getKey());
             stmt.setLong(2, rateLimit.getCounter());
             stmt.setLong(3, rateLimit.getLastRequest());
@@ -121,27 +120,13 @@ public class JdbcRateLimitRepository implements RateLimitRepository {
             stmt.setLong(5, rateLimit.getCreatedAt());
             stmt.setLong(6, rateLimit.getUpdatedAt());
             stmt.setBoolean(7, rateLimit.isAsync());
-            stmt.setString(8, rateLimit.getKey());
             return stmt;
         });
-        if (nbUpdatedElements == 0) {
-            jdbcTemplate.update((Connection cnctn) -> {
-                PreparedStatement stmt = cnctn.prepareStatement(INSERT_SQL);
-                stmt.setString(1, rateLimit.getKey());
-                stmt.setLong(2, rateLimit.getCounter());
-                stmt.setLong(3, rateLimit.getLastRequest());
-                stmt.setLong(4, rateLimit.getResetTime());
-                stmt.setLong(5, rateLimit.getCreatedAt());
-                stmt.setLong(6, rateLimit.getUpdatedAt());
-                stmt.setBoolean(7, rateLimit.isAsync());
-                return stmt;
-            });
-        }
     }
 
     @Override
     public Iterator<RateLimit> findAsyncAfter(long timestamp) {
-        final List<RateLimit> items = jdbcTemplate.query("select " + escapeReservedWord("key") + ", counter, last_request, reset_time, created_at, updated_at, async "
+        final List<RateLimit> items = jdbcTemplate.query("select " + dialect.escapeReservedWord("key") + ", counter, last_request, reset_time, created_at, updated_at, async "
                         + " from ratelimit "
                         + " where async = true and updated_at > ?"
                 , MAPPER
@@ -22,8 +22,6 @@ import org.springframework.context.annotation.ComponentScan;
 
 import javax.sql.DataSource;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.setEscapeReservedWordFromJDBCUrl;
-
 /**
  *
  * @author njt
@@ -34,12 +32,11 @@ public abstract class AbstractJdbcTestRepositoryConfiguration {
     abstract String getJdbcUrl();
 
     @Bean
-    public DataSource graviteeDataSource() {
+    public StatementCountingDataSource graviteeDataSource() {
         final HikariConfig dsConfig = new HikariConfig();
         final String jdbcUrl = getJdbcUrl();
         dsConfig.setJdbcUrl(jdbcUrl);
         //dsConfig.setAutoCommit(false);
-        setEscapeReservedWordFromJDBCUrl(jdbcUrl);
-        return new HikariDataSource(dsConfig);
+        return new StatementCountingDataSource(new HikariDataSource(dsConfig));
     }
 }
\ No newline at end of file
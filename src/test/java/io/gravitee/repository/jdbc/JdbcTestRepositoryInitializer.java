@@ -16,6 +16,7 @@
 package io.gravitee.repository.jdbc;
 
 import io.gravitee.repository.config.TestRepositoryInitializer;
+import io.gravitee.repository.jdbc.common.SqlDialect;
 import liquibase.Contexts;
 import liquibase.Liquibase;
 import liquibase.database.jvm.JdbcConnection;
@@ -23,6 +24,7 @@ import liquibase.resource.ClassLoaderResourceAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
@@ -32,8 +34,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import static io.gravitee.repository.jdbc.common.AbstractJdbcRepositoryConfiguration.escapeReservedWord;
-
 /**
  *
  * @author njt
@@ -44,6 +44,8 @@ public class JdbcTestRepositoryInitializer implements TestRepositoryInitializer
     private static final Logger LOGGER = LoggerFactory.getLogger(JdbcTestRepositoryInitializer.class);
 
     private final DataSource dataSource;
+    private final Environment environment;
+    private final SqlDialect dialect;
 
     private static final List<String> tablesToTruncate = Arrays.asList(
             "apis",
@@ -71,6 +73,7 @@ public class JdbcTestRepositoryInitializer implements TestRepositoryInitializer
             "membership_roles",
             "metadata",
             "media",
+            "media_blobs",
             "parameters",
             "pages",
             "page_excluded_groups",
@@ -100,6 +103,11 @@ public class JdbcTestRepositoryInitializer implements TestRepositoryInitializer
 
     private static final List<String> tablesToDrop = concatenate(tablesToTruncate
             , Arrays.asList(
+                    // left by an interrupted partitioning of the audits, their partitions go with their tables
+                    "audits_partitioned",
+                    "audit_properties_partitioned",
+                    // its single row is only inserted by its changeset, truncating it would lose it
+                    "media_storage",
                     "databasechangelog",
                     "databasechangeloglock"
             ));
@@ -112,13 +120,15 @@ public class JdbcTestRepositoryInitializer implements TestRepositoryInitializer
     }
 
     @Autowired
-    public JdbcTestRepositoryInitializer(DataSource dataSource) {
+    public JdbcTestRepositoryInitializer(DataSource dataSource, Environment environment, SqlDialect dialect) {
         LOGGER.debug("Constructed");
         this.dataSource = dataSource;
+        this.environment = environment;
+        this.dialect = dialect;
         final JdbcTemplate jt = new JdbcTemplate(dataSource);
         for (String table : tablesToDrop) {
             LOGGER.debug("Dropping {}", table);
-            jt.execute("drop table if exists " + escapeReservedWord(table));
+            jt.execute("drop table if exists " + dialect.escapeReservedWord(table));
         }
     }
 
@@ -130,9 +140,12 @@ public class JdbcTestRepositoryInitializer implements TestRepositoryInitializer
             final Liquibase liquibase = new Liquibase("liquibase/master.yml",
                     new ClassLoaderResourceAccessor(this.getClass().getClassLoader()), new JdbcConnection(conn));
             liquibase.setIgnoreClasspathPrefix(true);
-            liquibase.update((Contexts) null);
+            // same contexts as the repository, so that the tests run the changesets of the tested setup only
+            final boolean auditPartitioning = environment.getProperty("management.jdbc.audit.partitioning.enabled", Boolean.class, false);
+            liquibase.update(new Contexts(auditPartitioning ? "audit-partitioning" : "default"));
         } catch (final Exception ex) {
             LOGGER.error("Failed to set up database: ", ex);
+            throw new IllegalStateException("Failed to set up database", ex);
         }
     }
 
@@ -142,7 +155,7 @@ public class JdbcTestRepositoryInitializer implements TestRepositoryInitializer
         final JdbcTemplate jt = new JdbcTemplate(dataSource);
         jt.execute((Connection con) -> {
             for (final String table : tablesToTruncate) {
-                jt.execute("truncate table " + escapeReservedWord(table));
+                jt.execute("truncate table " + dialect.escapeReservedWord(table));
             }
             return null;
         });
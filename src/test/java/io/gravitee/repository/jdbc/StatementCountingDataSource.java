@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the statements prepared or created on its connections, so that tests can check the number of round trips
+ * of a repository call.
+ *
+ * @author GraviteeSource Team
+ */
+public class StatementCountingDataSource extends DelegatingDataSource implements Closeable {
+
+    private final AtomicInteger statements = new AtomicInteger();
+
+    public StatementCountingDataSource(final DataSource dataSource) {
+        super(dataSource);
+    }
+
+    public int getStatementCount() {
+        return statements.get();
+    }
+
+    public void resetStatementCount() {
+        statements.set(0);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return count(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return count(super.getConnection(username, password));
+    }
+
+    private Connection count(final Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                        case "prepareCall":
+                        case "createStatement":
+                            statements.incrementAndGet();
+                            break;
+                        default:
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (final InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable) {
+            ((Closeable) getTargetDataSource()).close();
+        }
+    }
+}
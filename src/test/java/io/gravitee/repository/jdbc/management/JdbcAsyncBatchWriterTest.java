@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.gravitee.repository.jdbc.management.JdbcAsyncBatchWriter.Backpressure.*;
+import static org.junit.Assert.*;
+
+/**
+ * Checks the behaviour of the writer when its queue is full, when it is closed and when writes fail.
+ * The writer thread is held on its first item, so that the queue of a single item is full with two more.
+ *
+ * @author GraviteeSource Team
+ */
+public class JdbcAsyncBatchWriterTest {
+
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private final List<String> writingThreads = new CopyOnWriteArrayList<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private JdbcAsyncBatchWriter<String> writer;
+
+    private void write(final List<String> items) {
+        started.countDown();
+        try {
+            released.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        for (String item : items) {
+            if (item.startsWith("bad")) {
+                throw new IllegalStateException("Failed to write " + item);
+            }
+        }
+        written.addAll(items);
+        writingThreads.add(Thread.currentThread().getName());
+    }
+
+    private void fillQueue(final JdbcAsyncBatchWriter.Backpressure backpressure) throws InterruptedException {
+        writer = new JdbcAsyncBatchWriter<>("test", 1, 1, backpressure, this::write);
+        writer.submit("first");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        writer.submit("queued");
+    }
+
+    @After
+    public void tearDown() {
+        released.countDown();
+        if (writer != null) {
+            writer.close(5000);
+        }
+    }
+
+    @Test
+    public void shouldBlockWhenQueueIsFull() throws InterruptedException {
+        fillQueue(BLOCK);
+        final Thread submitter = new Thread(() -> writer.submit("blocked"));
+        submitter.start();
+
+        submitter.join(200);
+        assertTrue(submitter.isAlive());
+        released.countDown();
+        submitter.join(5000);
+
+        assertFalse(submitter.isAlive());
+        writer.close(5000);
+        assertEquals(Arrays.asList("first", "queued", "blocked"), written);
+        assertEquals(0, writer.getDropped());
+    }
+
+    @Test
+    public void shouldDropWhenQueueIsFull() throws InterruptedException {
+        fillQueue(DROP);
+
+        writer.submit("dropped");
+
+        assertEquals(1, writer.getDropped());
+        released.countDown();
+        writer.close(5000);
+        assertEquals(Arrays.asList("first", "queued"), written);
+    }
+
+    @Test
+    public void shouldSpillWhenQueueIsFull() throws InterruptedException {
+        fillQueue(SPILL);
+        released.countDown();
+
+        writer.submit("spilled");
+
+        assertTrue(written.contains("spilled"));
+        assertTrue(writingThreads.contains(Thread.currentThread().getName()));
+        writer.close(5000);
+        assertEquals(3, written.size());
+        assertEquals(0, writer.getDropped());
+    }
+
+    @Test
+    public void shouldWriteQueuedItemsOnClose() throws InterruptedException {
+        writer = new JdbcAsyncBatchWriter<>("test", 10, 3, BLOCK, this::write);
+        writer.submit("first");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            writer.submit("queued-" + i);
+        }
+        released.countDown();
+
+        writer.close(5000);
+
+        assertEquals(6, written.size());
+        writer.submit("after");
+        assertEquals("after", written.get(6));
+        assertEquals(Thread.currentThread().getName(), writingThreads.get(writingThreads.size() - 1));
+    }
+
+    @Test
+    public void shouldWriteSynchronouslyAfterFailure() throws InterruptedException {
+        released.countDown();
+        writer = new JdbcAsyncBatchWriter<>("test", 10, 10, BLOCK, this::write);
+        writer.submit("bad-1");
+        for (int i = 0; i < 50 && writer.getFailed() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, writer.getFailed());
+
+        try {
+            writer.submit("bad-2");
+            fail("The failure of a synchronous write must reach the caller");
+        } catch (final IllegalStateException ex) {
+            assertEquals("Failed to write bad-2", ex.getMessage());
+        }
+        writer.submit("good");
+
+        assertEquals(Collections.singletonList("good"), written);
+        assertEquals(1, writer.getFailed());
+    }
+
+    @Test
+    public void shouldWriteOtherItemsOfFailedBatch() throws InterruptedException {
+        writer = new JdbcAsyncBatchWriter<>("test", 10, 10, BLOCK, this::write);
+        writer.submit("first");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        writer.submit("before");
+        writer.submit("bad");
+        writer.submit("after");
+        released.countDown();
+
+        writer.close(5000);
+
+        assertEquals(Arrays.asList("first", "before", "after"), written);
+        assertEquals(1, writer.getFailed());
+    }
+}
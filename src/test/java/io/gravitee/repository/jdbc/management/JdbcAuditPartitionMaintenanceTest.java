@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.jdbc.*;
+import io.gravitee.repository.jdbc.common.SqlDialect;
+import io.gravitee.repository.management.api.AuditRepository;
+import io.gravitee.repository.management.model.Audit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * Checks that the monthly partitions of the audits are created ahead of time and dropped once expired. Only runs
+ * with the audits partitioned, the maintenance doesn't exist otherwise.
+ *
+ * @author GraviteeSource Team
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {MySQLTestRepositoryConfiguration.class, MariaDBTestRepositoryConfiguration.class,
+        PostgreSQLTestRepositoryConfiguration.class, PostgreSQLAuditPartitioningTestRepositoryConfiguration.class})
+public class JdbcAuditPartitionMaintenanceTest {
+
+    private static final List<String> TABLES = Arrays.asList("audits", "audit_properties");
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile(".*p(\\d{4})(\\d{2})$");
+
+    @Autowired(required = false)
+    private JdbcAuditPartitionMaintenance maintenance;
+
+    @Inject
+    private AuditRepository auditRepository;
+
+    @Inject
+    private DataSource dataSource;
+
+    @Inject
+    private SqlDialect dialect;
+
+    @Inject
+    private JdbcTestRepositoryInitializer initializer;
+
+    @Before
+    public void setUp() {
+        assumeNotNull(maintenance);
+        // the scheduled maintenance would race with the one of the tests
+        maintenance.destroy();
+        initializer.setUp();
+        // partitions are only appended after the last one, each test starts without any
+        for (String table : TABLES) {
+            for (YearMonth month : getPartitions(table)) {
+                new JdbcTemplate(dataSource).execute(dialect.buildDropPartition(table, month));
+            }
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (maintenance != null) {
+            initializer.tearDown();
+        }
+    }
+
+    @Test
+    public void shouldCreateThePremadePartitions() {
+        final YearMonth now = YearMonth.now();
+        maintenance.configure(2, 0);
+
+        maintenance.maintain(now);
+
+        for (String table : TABLES) {
+            final SortedSet<YearMonth> partitions = getPartitions(table);
+            assertTrue(table + " " + partitions, partitions.containsAll(Arrays.asList(now, now.plusMonths(1), now.plusMonths(2))));
+        }
+    }
+
+    @Test
+    public void shouldDropTheExpiredPartitionsWithTheirAudits() throws Exception {
+        final YearMonth now = YearMonth.now();
+        maintenance.configure(2, 0);
+        maintenance.maintain(now);
+        final Audit audit = new Audit();
+        audit.setId("expired");
+        audit.setReferenceType(Audit.AuditReferenceType.API);
+        audit.setReferenceId("api");
+        audit.setUser("user");
+        audit.setEvent("API_UPDATED");
+        audit.setProperties(Collections.singletonMap("API", "api"));
+        audit.setCreatedAt(Date.from(now.atDay(1).atStartOfDay(ZoneId.systemDefault()).plusDays(1).toInstant()));
+        auditRepository.create(audit);
+
+        maintenance.configure(2, 3);
+        maintenance.maintain(now.plusMonths(4));
+
+        for (String table : TABLES) {
+            final SortedSet<YearMonth> partitions = getPartitions(table);
+            assertFalse(table + " " + partitions, partitions.contains(now));
+            assertTrue(table + " " + partitions, partitions.containsAll(Arrays.asList(now.plusMonths(1), now.plusMonths(6))));
+        }
+        assertFalse(auditRepository.findById(audit.getId()).isPresent());
+    }
+
+    private SortedSet<YearMonth> getPartitions(final String table) {
+        final SortedSet<YearMonth> partitions = new TreeSet<>();
+        for (String partition : new JdbcTemplate(dataSource).queryForList(dialect.buildListPartitions(), String.class, table)) {
+            final Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+            if (matcher.matches()) {
+                partitions.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.jdbc.*;
+import io.gravitee.repository.management.api.search.AuditCriteria;
+import io.gravitee.repository.management.model.Audit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the export walks all the audits once, in order, whatever the size of its chunks.
+ *
+ * @author GraviteeSource Team
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {MySQLTestRepositoryConfiguration.class, MariaDBTestRepositoryConfiguration.class,
+        PostgreSQLTestRepositoryConfiguration.class, PostgreSQLAuditPartitioningTestRepositoryConfiguration.class})
+public class JdbcAuditRepositoryTest {
+
+    @Inject
+    private JdbcAuditRepository auditRepository;
+
+    @Inject
+    private JdbcTestRepositoryInitializer initializer;
+
+    private final List<String> ids = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        initializer.setUp();
+        // whole seconds, kept by every database, so that audits share their creation date
+        final long now = System.currentTimeMillis() / 1000 * 1000;
+        // created out of order, the export sorts them by date then id
+        createAudit("audit-c", now);
+        createAudit("audit-a", now);
+        createAudit("audit-b", now);
+        createAudit("audit-e", now + 1000);
+        createAudit("audit-d", now + 1000);
+        createAudit("audit-0", now - 1000);
+        ids.addAll(Arrays.asList("audit-0", "audit-a", "audit-b", "audit-c", "audit-d", "audit-e"));
+    }
+
+    @After
+    public void tearDown() {
+        initializer.tearDown();
+    }
+
+    @Test
+    public void shouldExportAuditsWithTiedDatesByChunksOfOne() throws Exception {
+        final List<Audit> exported = new ArrayList<>();
+
+        assertEquals(ids.size(), auditRepository.export(new AuditCriteria.Builder().build(), exported::add, 1));
+
+        final List<String> exportedIds = new ArrayList<>();
+        for (Audit audit : exported) {
+            exportedIds.add(audit.getId());
+            assertEquals(Collections.singletonMap("API", audit.getId()), audit.getProperties());
+        }
+        assertEquals(ids, exportedIds);
+    }
+
+    @Test
+    public void shouldExportAuditsWithTiedDatesByChunksEndingOnATie() throws Exception {
+        final List<String> exportedIds = new ArrayList<>();
+
+        // the first chunk ends between audit-a and audit-b, which have the same date
+        assertEquals(ids.size(), auditRepository.export(new AuditCriteria.Builder().build(), audit -> exportedIds.add(audit.getId()), 2));
+
+        assertEquals(ids, exportedIds);
+    }
+
+    @Test
+    public void shouldExportAuditsAsNdjson() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        auditRepository.export(new AuditCriteria.Builder().build(), ExtendedAuditRepository.AuditSink.toNdjson(out));
+
+        final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(ids.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i], lines[i].startsWith("{") && lines[i].contains("\"" + ids.get(i) + "\""));
+        }
+    }
+
+    private void createAudit(final String id, final long createdAt) throws Exception {
+        final Audit audit = new Audit();
+        audit.setId(id);
+        audit.setReferenceType(Audit.AuditReferenceType.API);
+        audit.setReferenceId("api");
+        audit.setUser("user");
+        audit.setEvent("API_UPDATED");
+        audit.setProperties(Collections.singletonMap("API", id));
+        audit.setCreatedAt(new Date(createdAt));
+        auditRepository.create(audit);
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks when the cache serves its entries and when it loads them again.
+ *
+ * @author GraviteeSource Team
+ */
+public class JdbcCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(final String key) {
+        return key + "-" + loads.incrementAndGet();
+    }
+
+    @Test
+    public void shouldServeLoadedEntry() {
+        final JdbcCache<String, String> cache = new JdbcCache<>("test", 10, 60000);
+
+        assertEquals("key-1", cache.get("key", this::load));
+        assertEquals("key-1", cache.get("key", this::load));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void shouldLoadEvictedEntry() {
+        final JdbcCache<String, String> cache = new JdbcCache<>("test", 10, 60000);
+        cache.get("key", this::load);
+        cache.get("other", this::load);
+
+        cache.evict("key");
+
+        assertEquals("key-3", cache.get("key", this::load));
+        assertEquals("other-2", cache.get("other", this::load));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void shouldLoadExpiredEntry() throws InterruptedException {
+        final JdbcCache<String, String> cache = new JdbcCache<>("test", 10, 50);
+        cache.get("key", this::load);
+
+        Thread.sleep(100);
+
+        assertEquals("key-2", cache.get("key", this::load));
+        assertEquals("key-2", cache.get("key", this::load));
+    }
+
+    @Test
+    public void shouldNotCacheWithoutTimeToLive() {
+        final JdbcCache<String, String> cache = new JdbcCache<>("test", 10, 0);
+        cache.get("key", this::load);
+
+        assertEquals("key-2", cache.get("key", this::load));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntry() {
+        final JdbcCache<String, String> cache = new JdbcCache<>("test", 2, 60000);
+        cache.get("first", this::load);
+        cache.get("second", this::load);
+        cache.get("first", this::load);
+
+        cache.get("third", this::load);
+
+        assertEquals("first-1", cache.get("first", this::load));
+        assertEquals("second-4", cache.get("second", this::load));
+    }
+
+    @Test
+    public void shouldNotKeepEntryLoadedDuringEviction() {
+        final JdbcCache<String, String> cache = new JdbcCache<>("test", 10, 60000);
+
+        assertEquals("key-1", cache.get("key", key -> {
+            cache.evict(key);
+            return load(key);
+        }));
+        assertEquals("key-2", cache.get("key", this::load));
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.jdbc.*;
+import io.gravitee.repository.management.api.GroupRepository;
+import io.gravitee.repository.management.model.Group;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs each strategy of {@link JdbcChunkedInQuery} on a few ids, with lowered thresholds.
+ *
+ * @author GraviteeSource Team
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {MySQLTestRepositoryConfiguration.class, MariaDBTestRepositoryConfiguration.class,
+        PostgreSQLTestRepositoryConfiguration.class, PostgreSQLAuditPartitioningTestRepositoryConfiguration.class})
+public class JdbcChunkedInQueryTest {
+
+    private static final int GROUPS = 10;
+
+    @Inject
+    private GroupRepository groupRepository;
+
+    @Inject
+    private JdbcChunkedInQuery chunkedInQuery;
+
+    @Inject
+    private JdbcTestRepositoryInitializer initializer;
+
+    @Inject
+    private TransactionTemplate transactionTemplate;
+
+    private final Set<String> ids = new HashSet<>();
+
+    @Before
+    public void setUp() throws Exception {
+        initializer.setUp();
+        for (int i = 0; i < GROUPS; i++) {
+            final Group group = new Group();
+            group.setId("group-" + i);
+            group.setName("Group " + i);
+            group.setCreatedAt(new Date());
+            group.setUpdatedAt(group.getCreatedAt());
+            groupRepository.create(group);
+            ids.add(group.getId());
+        }
+    }
+
+    @After
+    public void tearDown() {
+        chunkedInQuery.init();
+        initializer.tearDown();
+    }
+
+    @Test
+    public void shouldFindByChunks() throws Exception {
+        chunkedInQuery.configure(3, 1, 0);
+
+        assertFoundAll();
+    }
+
+    @Test
+    public void shouldFindByParallelChunks() throws Exception {
+        chunkedInQuery.configure(3, 2, 0);
+
+        assertFoundAll();
+    }
+
+    @Test
+    public void shouldFindThroughTemporaryTable() throws Exception {
+        chunkedInQuery.configure(3, 1, 5);
+
+        assertFoundAll();
+    }
+
+    @Test
+    public void shouldNotQueryEmptyIds() {
+        final List<Object> queried = new ArrayList<>();
+
+        final List<Object> rows = chunkedInQuery.query(Collections.emptyList(), "id", (condition, args) -> {
+            queried.add(condition);
+            return singletonList(condition);
+        });
+
+        assertTrue(rows.isEmpty());
+        assertTrue(queried.isEmpty());
+    }
+
+    @Test
+    public void shouldQueryDistinctIds() {
+        chunkedInQuery.configure(3, 1, 0);
+        final List<Object> queriedIds = new ArrayList<>();
+
+        chunkedInQuery.query(Arrays.asList("a", "b", "a", "c", "b", "a"), "id", (condition, args) -> {
+            queriedIds.addAll(new HashSet<>(args));
+            return singletonList(condition);
+        });
+
+        assertEquals(Arrays.asList("a", "b", "c"), queriedIds.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldNotRunParallelChunksWithinTransaction() {
+        chunkedInQuery.configure(3, 2, 0);
+        final List<String> threads = new CopyOnWriteArrayList<>();
+
+        final List<Object> rows = transactionTemplate.execute(status -> chunkedInQuery.query(ids, "id", (condition, args) -> {
+            threads.add(Thread.currentThread().getName());
+            return singletonList(condition);
+        }));
+
+        assertEquals(4, rows.size());
+        assertEquals(Collections.singleton(Thread.currentThread().getName()), new HashSet<>(threads));
+    }
+
+    private void assertFoundAll() throws Exception {
+        final Set<Group> groups = groupRepository.findByIds(ids);
+
+        assertEquals(ids, groups.stream().map(Group::getId).collect(Collectors.toSet()));
+    }
+}
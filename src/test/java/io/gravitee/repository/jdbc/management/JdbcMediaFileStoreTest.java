@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that media contents are either completely written or missing, and that missing ones are reported as such.
+ *
+ * @author GraviteeSource Team
+ */
+public class JdbcMediaFileStoreTest {
+
+    private static final String HASH = "0123456789abcdef";
+    private static final byte[] CONTENT = "media content".getBytes(StandardCharsets.UTF_8);
+
+    private Path directory;
+    private JdbcMediaFileStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("media");
+        store = new JdbcMediaFileStore(directory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void shouldWriteTheContentUnderItsHash() throws IOException {
+        store.write(HASH, new ByteArrayInputStream(CONTENT));
+
+        assertArrayEquals(CONTENT, store.read(HASH));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(store.copy(HASH, out));
+        assertArrayEquals(CONTENT, out.toByteArray());
+        // the temporary file is gone once moved
+        assertEquals(1, getFiles().size());
+        assertTrue(getFiles().get(0).endsWith(HASH));
+    }
+
+    @Test
+    public void shouldNotRewriteAnExistingHash() throws IOException {
+        store.write(HASH, new ByteArrayInputStream(CONTENT));
+
+        store.write(HASH, new ByteArrayInputStream("other content".getBytes(StandardCharsets.UTF_8)));
+
+        assertArrayEquals(CONTENT, store.read(HASH));
+        assertEquals(1, getFiles().size());
+    }
+
+    @Test
+    public void shouldLeaveNothingWhenTheWriteFails() throws IOException {
+        final InputStream failing = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (read++ > 4) {
+                    throw new IOException("connection reset");
+                }
+                return 'a';
+            }
+        };
+
+        try {
+            store.write(HASH, failing);
+            fail("The write should have failed");
+        } catch (final IOException ex) {
+            assertEquals("connection reset", ex.getMessage());
+        }
+
+        assertNull(store.read(HASH));
+        assertTrue(getFiles().isEmpty());
+    }
+
+    @Test
+    public void shouldReadAMissingHash() throws IOException {
+        assertNull(store.read(HASH));
+        assertFalse(store.copy(HASH, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void shouldRejectAnInvalidHash() throws IOException {
+        try {
+            store.read("../../etc/passwd");
+            fail("The hash should have been rejected");
+        } catch (final IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("../../etc/passwd"));
+        }
+    }
+
+    private List<Path> getFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+}
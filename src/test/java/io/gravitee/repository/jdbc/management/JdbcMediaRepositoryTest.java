@@ -0,0 +1,221 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.jdbc.*;
+import io.gravitee.repository.jdbc.common.SqlDialect;
+import io.gravitee.repository.media.model.Media;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the content of media is stored once per hash, and deleted once no media refers to it, and that the
+ * contents are only checked at startup when their storage changes.
+ *
+ * @author GraviteeSource Team
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {MySQLTestRepositoryConfiguration.class, MariaDBTestRepositoryConfiguration.class,
+        PostgreSQLTestRepositoryConfiguration.class, PostgreSQLAuditPartitioningTestRepositoryConfiguration.class})
+public class JdbcMediaRepositoryTest {
+
+    private static final String HASH = "0123456789abcdef";
+    private static final byte[] CONTENT = "media content".getBytes(StandardCharsets.UTF_8);
+
+    @Inject
+    private ExtendedMediaRepository mediaRepository;
+
+    @Inject
+    private JdbcMediaRepository jdbcMediaRepository;
+
+    @Inject
+    private StatementCountingDataSource dataSource;
+
+    @Inject
+    private SqlDialect dialect;
+
+    @Inject
+    private JdbcTestRepositoryInitializer initializer;
+
+    @Before
+    public void setUp() {
+        initializer.setUp();
+    }
+
+    @After
+    public void tearDown() {
+        initializer.tearDown();
+    }
+
+    @Test
+    public void shouldStoreTheSameContentOnce() throws Exception {
+        mediaRepository.save(newMedia("media-1", "api-1", HASH));
+        mediaRepository.save(newMedia("media-2", "api-2", HASH));
+
+        assertEquals(1, countBlobs());
+        for (String api : Arrays.asList("api-1", "api-2")) {
+            final Optional<Media> media = mediaRepository.findByHash(HASH, api, "image");
+            assertTrue(api, media.isPresent());
+            assertArrayEquals(CONTENT, media.get().getData());
+        }
+    }
+
+    @Test
+    public void shouldStoreTheSameContentOnceInABatch() throws Exception {
+        mediaRepository.saveAll(Arrays.asList(newMedia("media-1", "api-1", HASH), newMedia("media-2", "api-2", HASH)));
+
+        assertEquals(1, countBlobs());
+        assertTrue(mediaRepository.findByHash(HASH, "api-2", "image").isPresent());
+    }
+
+    @Test
+    public void shouldTakeTheSizeFromTheData() throws Exception {
+        final Media media = newMedia("media-1", "api-1", HASH);
+        media.setSize(null);
+
+        mediaRepository.save(media);
+
+        assertEquals(Long.valueOf(CONTENT.length), mediaRepository.findByHash(HASH, "api-1", "image").get().getSize());
+    }
+
+    @Test
+    public void shouldRequireTheSizeOfAStream() throws Exception {
+        final Media media = newMedia("media-1", "api-1", HASH);
+        media.setSize(null);
+
+        try {
+            mediaRepository.save(media, new ByteArrayInputStream(CONTENT));
+            fail("The media should have been rejected");
+        } catch (final IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains(HASH));
+        }
+        assertEquals(0, countBlobs());
+    }
+
+    @Test
+    public void shouldDeleteTheContentOfTheLastMedia() throws Exception {
+        mediaRepository.save(newMedia("media-1", "api-1", HASH));
+        mediaRepository.save(newMedia("media-2", "api-2", HASH));
+
+        mediaRepository.delete(HASH, "api-1", "image");
+        assertEquals(1, countBlobs());
+
+        mediaRepository.delete(HASH, "api-2", "image");
+        assertEquals(0, countBlobs());
+    }
+
+    @Test
+    public void shouldDeleteUnreferencedBlobs() throws Exception {
+        mediaRepository.save(newMedia("media-1", "api-1", HASH));
+        mediaRepository.save(newMedia("media-2", "api-2", "fedcba9876543210"));
+        // left by a media deleted without its content
+        new JdbcTemplate(dataSource).update("delete from " + dialect.escapeReservedWord("media") + " where id = ?", "media-1");
+
+        assertEquals(1, mediaRepository.deleteUnreferencedBlobs());
+
+        assertEquals(1, countBlobs());
+        assertTrue(mediaRepository.findByHash("fedcba9876543210", "api-2", "image").isPresent());
+        assertEquals(0, mediaRepository.deleteUnreferencedBlobs());
+    }
+
+    @Test
+    public void shouldMoveTheContentsToFilesWhenSwitchingStorage() throws Exception {
+        mediaRepository.save(newMedia("media-1", "api-1", HASH));
+        final Path directory = Files.createTempDirectory("media");
+        try {
+            jdbcMediaRepository.initStorage("filesystem", directory.toString(), false);
+
+            assertEquals(0, countBlobsWithData());
+            assertArrayEquals(CONTENT, mediaRepository.findByHash(HASH, "api-1", "image").get().getData());
+            try {
+                jdbcMediaRepository.initStorage("database", null, false);
+                fail("The contents can't be moved back to the database");
+            } catch (final IllegalStateException ex) {
+                assertTrue(ex.getMessage().contains("filesystem"));
+            }
+            // still stored as files
+            assertArrayEquals(CONTENT, mediaRepository.findByHash(HASH, "api-1", "image").get().getData());
+        } finally {
+            initializer.tearDown();
+            jdbcMediaRepository.initStorage("database", null, false);
+            delete(directory);
+        }
+
+        mediaRepository.save(newMedia("media-2", "api-2", HASH));
+        assertEquals(1, countBlobsWithData());
+    }
+
+    @Test
+    public void shouldOnlyCheckTheContentsWhenTheStorageChanges() throws Exception {
+        dataSource.resetStatementCount();
+        jdbcMediaRepository.initStorage("database", null, false);
+        assertEquals(1, dataSource.getStatementCount());
+
+        dataSource.resetStatementCount();
+        jdbcMediaRepository.initStorage("database", null, true);
+        assertEquals(2, dataSource.getStatementCount());
+    }
+
+    private Media newMedia(final String id, final String api, final String hash) {
+        final Media media = new Media();
+        media.setId(id);
+        media.setType("image");
+        media.setSubType("png");
+        media.setFileName(id + ".png");
+        media.setApi(api);
+        media.setHash(hash);
+        media.setData(CONTENT);
+        media.setSize((long) CONTENT.length);
+        return media;
+    }
+
+    private int countBlobs() {
+        return new JdbcTemplate(dataSource).queryForObject("select count(*) from media_blobs", Integer.class);
+    }
+
+    private int countBlobsWithData() {
+        return new JdbcTemplate(dataSource).queryForObject("select count(*) from media_blobs where data is not null", Integer.class);
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            final List<Path> paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+}
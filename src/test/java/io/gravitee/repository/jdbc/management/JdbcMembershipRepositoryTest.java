@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.jdbc.*;
+import io.gravitee.repository.management.api.MembershipRepository;
+import io.gravitee.repository.management.model.Membership;
+import io.gravitee.repository.management.model.MembershipReferenceType;
+import io.gravitee.repository.management.model.RoleScope;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that memberships are loaded with their roles in a single statement, whatever their number, and that the
+ * memberships of a user are cached until they are written.
+ *
+ * @author GraviteeSource Team
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {MySQLTestRepositoryConfiguration.class, MariaDBTestRepositoryConfiguration.class,
+        PostgreSQLTestRepositoryConfiguration.class, PostgreSQLAuditPartitioningTestRepositoryConfiguration.class})
+public class JdbcMembershipRepositoryTest {
+
+    private static final int MEMBERSHIPS = 20;
+
+    @Inject
+    private MembershipRepository membershipRepository;
+
+    @Inject
+    private StatementCountingDataSource dataSource;
+
+    @Inject
+    private JdbcTestRepositoryInitializer initializer;
+
+    private final List<String> apis = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        initializer.setUp();
+        for (int i = 0; i < MEMBERSHIPS; i++) {
+            final Membership membership = new Membership();
+            membership.setUserId("user");
+            membership.setReferenceType(MembershipReferenceType.API);
+            membership.setReferenceId("api-" + i);
+            final Map<Integer, String> roles = new HashMap<>();
+            roles.put(RoleScope.API.getId(), "OWNER");
+            roles.put(RoleScope.APPLICATION.getId(), "USER");
+            membership.setRoles(roles);
+            membership.setCreatedAt(new Date());
+            membership.setUpdatedAt(membership.getCreatedAt());
+            membershipRepository.create(membership);
+            apis.add(membership.getReferenceId());
+        }
+        dataSource.resetStatementCount();
+    }
+
+    @After
+    public void tearDown() {
+        initializer.tearDown();
+    }
+
+    @Test
+    public void shouldFindByIdsInOneStatement() throws Exception {
+        final Set<Membership> memberships = membershipRepository.findByIds("user", MembershipReferenceType.API, new HashSet<>(apis));
+
+        assertEquals(MEMBERSHIPS, memberships.size());
+        assertRoles(memberships);
+        assertEquals(1, dataSource.getStatementCount());
+    }
+
+    @Test
+    public void shouldFindByReferencesAndRoleInOneStatement() throws Exception {
+        final Set<Membership> memberships = membershipRepository.findByReferencesAndRole(MembershipReferenceType.API, apis, RoleScope.API, "OWNER");
+
+        assertEquals(MEMBERSHIPS, memberships.size());
+        assertRoles(memberships);
+        assertEquals(1, dataSource.getStatementCount());
+    }
+
+    @Test
+    public void shouldFindByUserAndReferenceTypeAndRoleInOneStatement() throws Exception {
+        final Set<Membership> memberships = membershipRepository.findByUserAndReferenceTypeAndRole("user", MembershipReferenceType.API, RoleScope.APPLICATION, "USER");
+
+        assertEquals(MEMBERSHIPS, memberships.size());
+        assertRoles(memberships);
+        assertEquals(1, dataSource.getStatementCount());
+    }
+
+    @Test
+    public void shouldFindByIdInOneStatement() throws Exception {
+        final Optional<Membership> membership = membershipRepository.findById("user", MembershipReferenceType.API, "api-0");
+
+        assertEquals(true, membership.isPresent());
+        assertRoles(Collections.singleton(membership.get()));
+        assertEquals(1, dataSource.getStatementCount());
+    }
+
+    @Test
+    public void shouldServeUserMembershipsFromCache() throws Exception {
+        assertEquals(MEMBERSHIPS, membershipRepository.findByUser("user").size());
+        assertEquals(MEMBERSHIPS, membershipRepository.findByUserAndReferenceType("user", MembershipReferenceType.API).size());
+
+        final Set<Membership> memberships = membershipRepository.findByUser("user");
+
+        assertRoles(memberships);
+        assertEquals(1, dataSource.getStatementCount());
+    }
+
+    @Test
+    public void shouldNotShareCachedMemberships() throws Exception {
+        membershipRepository.findByUser("user").iterator().next().getRoles().clear();
+
+        assertRoles(membershipRepository.findByUser("user"));
+    }
+
+    @Test
+    public void shouldEvictUserMembershipsOnUpdate() throws Exception {
+        final Membership membership = membershipRepository.findById("user", MembershipReferenceType.API, "api-0").get();
+        membershipRepository.findByUser("user");
+        membership.getRoles().remove(RoleScope.APPLICATION.getId());
+
+        membershipRepository.update(membership);
+        dataSource.resetStatementCount();
+        final Set<Membership> memberships = membershipRepository.findByUser("user");
+
+        assertEquals(1, dataSource.getStatementCount());
+        for (Membership found : memberships) {
+            assertEquals("api-0".equals(found.getReferenceId()) ? 1 : 2, found.getRoles().size());
+        }
+    }
+
+    private void assertRoles(final Collection<Membership> memberships) {
+        for (Membership membership : memberships) {
+            assertEquals(2, membership.getRoles().size());
+        }
+    }
+}
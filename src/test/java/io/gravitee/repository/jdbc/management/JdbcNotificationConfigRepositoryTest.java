@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.jdbc.*;
+import io.gravitee.repository.management.api.GenericNotificationConfigRepository;
+import io.gravitee.repository.management.api.PortalNotificationConfigRepository;
+import io.gravitee.repository.management.model.GenericNotificationConfig;
+import io.gravitee.repository.management.model.NotificationReferenceType;
+import io.gravitee.repository.management.model.PortalNotificationConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the configs notified of a hook are read once, then served from the cache until they are written.
+ *
+ * @author GraviteeSource Team
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {MySQLTestRepositoryConfiguration.class, MariaDBTestRepositoryConfiguration.class,
+        PostgreSQLTestRepositoryConfiguration.class, PostgreSQLAuditPartitioningTestRepositoryConfiguration.class})
+public class JdbcNotificationConfigRepositoryTest {
+
+    @Inject
+    private GenericNotificationConfigRepository genericNotificationConfigRepository;
+
+    @Inject
+    private PortalNotificationConfigRepository portalNotificationConfigRepository;
+
+    @Inject
+    private StatementCountingDataSource dataSource;
+
+    @Inject
+    private JdbcTestRepositoryInitializer initializer;
+
+    @Before
+    public void setUp() {
+        initializer.setUp();
+    }
+
+    @After
+    public void tearDown() {
+        initializer.tearDown();
+    }
+
+    @Test
+    public void shouldServeGenericConfigsFromCacheUntilUpdated() throws Exception {
+        final GenericNotificationConfig config = new GenericNotificationConfig();
+        config.setId("config");
+        config.setName("Webhook");
+        config.setNotifier("webhook");
+        config.setConfig("http://localhost/hook");
+        config.setReferenceType(NotificationReferenceType.API);
+        config.setReferenceId("api");
+        config.setHooks(Collections.singletonList("API_STARTED"));
+        config.setCreatedAt(new Date());
+        config.setUpdatedAt(config.getCreatedAt());
+        genericNotificationConfigRepository.create(config);
+
+        assertEquals(1, genericNotificationConfigRepository.findByReferenceAndHook("API_STARTED", NotificationReferenceType.API, "api").size());
+        dataSource.resetStatementCount();
+        final List<GenericNotificationConfig> cached = genericNotificationConfigRepository.findByReferenceAndHook("API_STARTED", NotificationReferenceType.API, "api");
+        assertEquals(0, dataSource.getStatementCount());
+        assertEquals(1, cached.size());
+        assertEquals(Collections.singletonList("API_STARTED"), cached.get(0).getHooks());
+
+        config.setHooks(Collections.singletonList("API_STOPPED"));
+        genericNotificationConfigRepository.update(config);
+
+        dataSource.resetStatementCount();
+        assertTrue(genericNotificationConfigRepository.findByReferenceAndHook("API_STARTED", NotificationReferenceType.API, "api").isEmpty());
+        assertTrue(dataSource.getStatementCount() > 0);
+        assertEquals(1, genericNotificationConfigRepository.findByReferenceAndHook("API_STOPPED", NotificationReferenceType.API, "api").size());
+    }
+
+    @Test
+    public void shouldServePortalConfigsFromCacheUntilUpdated() throws Exception {
+        final PortalNotificationConfig config = new PortalNotificationConfig();
+        config.setUser("user");
+        config.setReferenceType(NotificationReferenceType.API);
+        config.setReferenceId("api");
+        config.setHooks(Collections.singletonList("API_STARTED"));
+        config.setCreatedAt(new Date());
+        config.setUpdatedAt(config.getCreatedAt());
+        portalNotificationConfigRepository.create(config);
+
+        assertEquals(1, portalNotificationConfigRepository.findByReferenceAndHook("API_STARTED", NotificationReferenceType.API, "api").size());
+        dataSource.resetStatementCount();
+        final List<PortalNotificationConfig> cached = portalNotificationConfigRepository.findByReferenceAndHook("API_STARTED", NotificationReferenceType.API, "api");
+        assertEquals(0, dataSource.getStatementCount());
+        assertEquals(1, cached.size());
+        assertEquals("user", cached.get(0).getUser());
+
+        config.setHooks(Collections.singletonList("API_STOPPED"));
+        portalNotificationConfigRepository.update(config);
+
+        dataSource.resetStatementCount();
+        assertTrue(portalNotificationConfigRepository.findByReferenceAndHook("API_STARTED", NotificationReferenceType.API, "api").isEmpty());
+        assertTrue(dataSource.getStatementCount() > 0);
+        assertEquals(1, portalNotificationConfigRepository.findByReferenceAndHook("API_STOPPED", NotificationReferenceType.API, "api").size());
+    }
+}
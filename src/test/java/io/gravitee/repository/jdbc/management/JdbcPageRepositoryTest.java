@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.jdbc.management;
+
+import io.gravitee.repository.jdbc.*;
+import io.gravitee.repository.management.api.PageRepository;
+import io.gravitee.repository.management.api.search.PageCriteria;
+import io.gravitee.repository.management.model.Page;
+import io.gravitee.repository.management.model.PageType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.inject.Inject;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that pages are listed without their content, which is still read with a single page.
+ *
+ * @author GraviteeSource Team
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {MySQLTestRepositoryConfiguration.class, MariaDBTestRepositoryConfiguration.class,
+        PostgreSQLTestRepositoryConfiguration.class, PostgreSQLAuditPartitioningTestRepositoryConfiguration.class})
+public class JdbcPageRepositoryTest {
+
+    private static final int PAGES = 3;
+
+    @Inject
+    private PageRepository pageRepository;
+
+    @Inject
+    private JdbcTestRepositoryInitializer initializer;
+
+    @Before
+    public void setUp() throws Exception {
+        initializer.setUp();
+        for (int i = 0; i < PAGES; i++) {
+            final Page page = new Page();
+            page.setId("page-" + i);
+            page.setType(PageType.MARKDOWN);
+            page.setName("Page " + i);
+            page.setContent("# Content of page " + i);
+            page.setOrder(i);
+            page.setApi("api");
+            page.setPublished(true);
+            page.setConfiguration(Collections.singletonMap("key", "value-" + i));
+            page.setMetadata(new HashMap<>());
+            page.setExcludedGroups(Collections.singletonList("group-" + i));
+            page.setCreatedAt(new Date());
+            page.setUpdatedAt(page.getCreatedAt());
+            pageRepository.create(page);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        initializer.tearDown();
+    }
+
+    @Test
+    public void shouldSearchPagesWithoutTheirContent() throws Exception {
+        final List<Page> pages = pageRepository.search(new PageCriteria.Builder().api("api").build());
+
+        assertEquals(PAGES, pages.size());
+        for (int i = 0; i < PAGES; i++) {
+            final Page page = pages.get(i);
+            assertEquals("page-" + i, page.getId());
+            assertEquals("Page " + i, page.getName());
+            assertNull(page.getContent());
+            assertEquals(Collections.singletonMap("key", "value-" + i), page.getConfiguration());
+            assertEquals(Collections.singletonList("group-" + i), page.getExcludedGroups());
+        }
+    }
+
+    @Test
+    public void shouldFindThePageWithItsContent() throws Exception {
+        final Optional<Page> page = pageRepository.findById("page-1");
+
+        assertTrue(page.isPresent());
+        assertEquals("# Content of page 1", page.get().getContent());
+        assertEquals(Collections.singletonMap("key", "value-1"), page.get().getConfiguration());
+    }
+}